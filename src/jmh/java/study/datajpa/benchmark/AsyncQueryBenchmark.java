@@ -0,0 +1,78 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import study.datajpa.dto.MemberNameAge;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/*
+높은 동시성에서 처리량 비교 (요청 스레드 64개가 각각 쿼리 8개가 필요한 상황)
+- sequential : 요청 스레드가 쿼리를 차례로 실행
+- async      : @Async 쿼리 메서드로 동시에 실행하고 합친다. (동시 실행 수는 커넥션 풀의 절반, DataSourcePoolConfig)
+virtualThreads: applicationTaskExecutor를 가상 스레드(true)/플랫폼 스레드 풀(false)로 띄워서 async 쪽을 비교한다.
+가상 스레드는 Java 21 이상에서만 적용되므로 Java 17에서 실행하면 두 값의 결과가 같다.
+./gradlew jmh -PjmhIncludes=AsyncQueryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+public class AsyncQueryBenchmark {
+    static final int QUERIES_PER_REQUEST = 8;
+
+    @State(Scope.Benchmark)
+    public static class Context extends BenchmarkContext {
+        @Param({"false", "true"})
+        public boolean virtualThreads;
+
+        @Override
+        protected List<String> properties() {
+            List<String> properties = new ArrayList<>(super.properties());
+            properties.add("spring.threads.virtual.enabled=" + virtualThreads);
+            return properties;
+        }
+    }
+
+    MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(Context ctx) {
+        memberRepository = ctx.bean(MemberRepository.class);
+    }
+
+    @Benchmark
+    public int sequential() {
+        int total = 0;
+        for (int i = 0; i < QUERIES_PER_REQUEST; i++) {
+            total += memberRepository.findNameAgeByAge(randomAge()).size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int async() {
+        List<CompletableFuture<List<MemberNameAge>>> futures = IntStream.range(0, QUERIES_PER_REQUEST)
+                .mapToObj(i -> memberRepository.findNameAgeAsyncByAge(randomAge()))
+                .toList();
+        return futures.stream().mapToInt(future -> future.join().size()).sum();
+    }
+
+    private int randomAge() {
+        return ThreadLocalRandom.current().nextInt(BenchmarkContext.AGES);
+    }
+}
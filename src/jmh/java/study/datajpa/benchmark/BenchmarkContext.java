@@ -0,0 +1,89 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamJpaRepository;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/*
+벤치마크 공통 상태
+내장 메모리 H2로 애플리케이션을 띄우고 회원 members명(팀은 10명당 1개)을 넣어둔다.
+회원: username = "member" + i, age = i % 50
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+    public static final int AGES = 50;
+
+    @Param({"1000"})
+    public int members;
+
+    public ConfigurableApplicationContext context;
+    public TransactionTemplate tx;
+    public TransactionTemplate readOnlyTx;
+    public long startupMillis; //애플리케이션 로딩 시간 (데이터 입력 제외)
+
+    @Setup(Level.Trial)
+    public void start() {
+        long startedAt = System.nanoTime();
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(webApplicationType())
+                .properties(properties().toArray(String[]::new))
+                .run();
+        startupMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        tx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        seed();
+    }
+
+    //HTTP 요청까지 측정하는 벤치마크는 SERVLET으로 오버라이드
+    protected WebApplicationType webApplicationType() {
+        return WebApplicationType.NONE;
+    }
+
+    //벤치마크별로 설정을 바꾸고 싶으면 오버라이드
+    protected List<String> properties() {
+        return List.of(
+                "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "decorator.datasource.p6spy.enable-logging=false",
+                "logging.level.root=warn");
+    }
+
+    protected void seed() {
+        int teamCount = Math.max(1, members / 10);
+        tx.executeWithoutResult(status -> {
+            List<Team> teams = IntStream.range(0, teamCount)
+                    .mapToObj(i -> new Team("team" + i))
+                    .toList();
+            bean(TeamJpaRepository.class).saveAllBatched(teams.stream());
+            bean(MemberRepository.class).saveAllBatched(IntStream.range(0, members)
+                    .mapToObj(i -> new Member("member" + i, i % AGES, teams.get(i % teamCount))));
+        });
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
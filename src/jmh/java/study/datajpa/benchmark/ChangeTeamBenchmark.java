@@ -0,0 +1,111 @@
+package study.datajpa.benchmark;
+
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamJpaRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/*
+회원 bigTeamMembers명이 있는 큰 팀의 members 컬렉션 사용 비용 (Team.members는 extra lazy)
+- changeTeam: 회원 한 명을 큰 팀으로 옮겼다가 되돌리기 (members.add()가 컬렉션을 읽지 않는다)
+- size: members.size() -> count 쿼리
+- sizeInitialized: 컬렉션을 전부 읽은 뒤 size() (extra lazy가 아닌 매핑에서 size()/add()가 하던 일)
+- iterateChunks: MemberRepository.iterateByTeamId로 1000명씩 나눠서 순회
+./gradlew jmh -PjmhIncludes=ChangeTeamBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChangeTeamBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Context extends BenchmarkContext {
+        @Param({"100000"})
+        public int bigTeamMembers;
+
+        Long bigTeamId;
+
+        @Override
+        protected void seed() {
+            super.seed();
+            bigTeamId = tx.execute(status -> {
+                Team team = new Team("bigTeam");
+                bean(TeamJpaRepository.class).saveAllBatched(Stream.of(team));
+                bean(MemberRepository.class).saveAllBatched(IntStream.range(0, bigTeamMembers)
+                        .mapToObj(i -> new Member("big" + i, i % AGES, team)));
+                return team.getId();
+            });
+        }
+    }
+
+    MemberRepository memberRepository;
+    TeamRepository teamRepository;
+    Long moverId;
+    Long homeTeamId;
+
+    @Setup(Level.Trial)
+    public void setUp(Context ctx) {
+        memberRepository = ctx.bean(MemberRepository.class);
+        teamRepository = ctx.bean(TeamRepository.class);
+        Member mover = memberRepository.findListByUsername("member0").get(0);
+        moverId = mover.getId();
+        homeTeamId = ctx.readOnlyTx.execute(status -> memberRepository.findById(moverId).orElseThrow().getTeam().getId());
+    }
+
+    @Benchmark
+    public void changeTeam(Context ctx) {
+        ctx.tx.executeWithoutResult(status -> {
+            Member mover = memberRepository.findById(moverId).orElseThrow();
+            mover.changeTeam(teamRepository.findById(ctx.bigTeamId).orElseThrow());
+        });
+        ctx.tx.executeWithoutResult(status -> {
+            Member mover = memberRepository.findById(moverId).orElseThrow();
+            mover.changeTeam(teamRepository.findById(homeTeamId).orElseThrow());
+        });
+    }
+
+    @Benchmark
+    public Integer size(Context ctx) {
+        return ctx.readOnlyTx.execute(status ->
+                teamRepository.findById(ctx.bigTeamId).orElseThrow().getMembers().size());
+    }
+
+    @Benchmark
+    public Integer sizeInitialized(Context ctx) {
+        return ctx.readOnlyTx.execute(status -> {
+            List<Member> members = teamRepository.findById(ctx.bigTeamId).orElseThrow().getMembers();
+            Hibernate.initialize(members);
+            return members.size();
+        });
+    }
+
+    @Benchmark
+    public Integer iterateChunks(Context ctx) {
+        return ctx.readOnlyTx.execute(status -> {
+            int count = 0;
+            Iterator<Member> iterator = memberRepository.iterateByTeamId(ctx.bigTeamId, 1000);
+            while (iterator.hasNext()) {
+                iterator.next();
+                count++;
+            }
+            return count;
+        });
+    }
+}
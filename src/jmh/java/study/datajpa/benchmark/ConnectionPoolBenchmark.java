@@ -0,0 +1,72 @@
+package study.datajpa.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+커넥션 풀 포화 부하 테스트
+스레드 64개가 커넥션을 얻어 쿼리 후 1ms 더 잡고 있다가 반납한다. (풀 크기보다 스레드가 많으므로 대기 발생)
+측정값(op 시간) = 커넥션 대기 + 쿼리. 끝나면 Hikari의 대기 시간(acquire) 지표를 출력한다.
+./gradlew jmh -PjmhIncludes=ConnectionPoolBenchmark
+ */
+@State(Scope.Benchmark)
+@Threads(64)
+public class ConnectionPoolBenchmark {
+    HikariDataSource dataSource;
+    MeterRegistry registry;
+    final AtomicInteger maxPending = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext ctx) {
+        dataSource = ctx.bean(HikariDataSource.class);
+        registry = ctx.bean(MeterRegistry.class);
+    }
+
+    @Benchmark
+    public long acquireAndQuery() throws SQLException, InterruptedException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "select count(*) from member where age = ?")) {
+            maxPending.accumulateAndGet(dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection(), Math::max);
+            statement.setInt(1, ThreadLocalRandom.current().nextInt(BenchmarkContext.AGES));
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                TimeUnit.MILLISECONDS.sleep(1);
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        Timer acquire = registry.find("hikaricp.connections.acquire").timer();
+        Counter timeouts = registry.find("hikaricp.connections.timeout").counter();
+        System.out.println();
+        System.out.println("pool size           = " + dataSource.getMaximumPoolSize());
+        System.out.println("max pending threads = " + maxPending.get());
+        if (acquire != null) {
+            System.out.printf("acquire wait        = mean %.3fms, max %.3fms (%d acquisitions)%n",
+                    acquire.mean(TimeUnit.MILLISECONDS), acquire.max(TimeUnit.MILLISECONDS), acquire.count());
+        }
+        if (timeouts != null) {
+            System.out.println("connection timeouts = " + (long) timeouts.count());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package study.datajpa.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.OptimisticRetryExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*
+같은 회원(한 행)의 나이를 writers개 스레드가 동시에 1씩 올리는 시간 (op 하나 = 스레드마다 1번씩, 총 writers번 증가)
+- optimistic: 조회 후 수정, version 충돌 시 재시도 (OptimisticRetryExecutor)
+- pessimistic: select ... for update 로 잠그고 수정
+- bulk: update ... set age = age + 1 한 번 (조회 없음)
+끝나면 낙관적 락 재시도 횟수를 출력한다.
+./gradlew jmh -PjmhIncludes=ContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ContentionBenchmark {
+    @Param({"2", "8", "16", "32", "64"})
+    public int writers;
+
+    @State(Scope.Benchmark)
+    public static class Context extends BenchmarkContext {
+        @Override
+        protected List<String> properties() {
+            List<String> properties = new ArrayList<>(super.properties());
+            properties.add("datajpa.optimistic-retry.max-attempts=1000"); //64개가 한 행에 몰려도 포기하지 않게
+            return properties;
+        }
+    }
+
+    MemberRepository memberRepository;
+    OptimisticRetryExecutor retryExecutor;
+    ExecutorService pool;
+    Long hotId;
+
+    @Setup(Level.Trial)
+    public void setUp(Context ctx) {
+        memberRepository = ctx.bean(MemberRepository.class);
+        retryExecutor = ctx.bean(OptimisticRetryExecutor.class);
+        pool = Executors.newFixedThreadPool(writers);
+        hotId = ctx.tx.execute(status -> memberRepository.save(new Member("hot", 0)).getId());
+    }
+
+    @Benchmark
+    public void optimistic() throws Exception {
+        runWriters(() -> retryExecutor.execute(() -> {
+            Member member = memberRepository.findById(hotId).orElseThrow();
+            member.setAge(member.getAge() + 1);
+        }));
+    }
+
+    @Benchmark
+    public void pessimistic(Context ctx) throws Exception {
+        runWriters(() -> ctx.tx.executeWithoutResult(status -> {
+            Member member = memberRepository.findByIdForUpdate(hotId).orElseThrow();
+            member.setAge(member.getAge() + 1);
+        }));
+    }
+
+    @Benchmark
+    public void bulk(Context ctx) throws Exception {
+        runWriters(() -> ctx.tx.executeWithoutResult(status -> memberRepository.bulkAgePlusById(hotId)));
+    }
+
+    private void runWriters(Runnable write) throws Exception {
+        List<Future<?>> futures = new ArrayList<>(writers);
+        for (int i = 0; i < writers; i++) {
+            futures.add(pool.submit(write));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(Context ctx) {
+        pool.shutdown();
+        System.out.println("optimistic retries (writers=" + writers + "): "
+                + ctx.bean(MeterRegistry.class).counter("repository.optimistic.retries").count());
+    }
+}
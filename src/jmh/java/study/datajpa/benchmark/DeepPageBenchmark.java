@@ -0,0 +1,84 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/*
+깊은 페이지 조회 (1, 100, 1000번째 페이지, 페이지당 10명)
+- offset : findSliceByAge + PageRequest (앞 페이지를 전부 읽고 버린다)
+- keyset : findByAgeOrderByUsernameDescIdDesc + 직전 페이지 마지막 회원 위치
+같은 나이(DEEP_AGE)의 회원을 마지막 페이지까지 채울 만큼 따로 넣는다.
+./gradlew jmh -PjmhIncludes=DeepPageBenchmark
+ */
+@State(Scope.Benchmark)
+public class DeepPageBenchmark {
+    static final int DEEP_AGE = 200;
+    static final int PAGE_SIZE = 10;
+    static final int MAX_PAGE = 1000;
+    static final Sort SORT = Sort.by(Sort.Direction.DESC, "username", "id");
+
+    @State(Scope.Benchmark)
+    public static class Context extends BenchmarkContext {
+        @Override
+        protected void seed() {
+            super.seed();
+            tx.executeWithoutResult(status -> bean(MemberRepository.class).saveAllBatched(
+                    IntStream.range(0, MAX_PAGE * PAGE_SIZE)
+                            .mapToObj(i -> new Member(String.format("deep%06d", i), DEEP_AGE))));
+        }
+    }
+
+    @Param({"1", "100", "1000"})
+    public int page; //1부터
+
+    MemberRepository memberRepository;
+    PageRequest pageRequest;
+    ScrollPosition position;
+
+    @Setup(Level.Trial)
+    public void setUp(Context ctx) {
+        memberRepository = ctx.bean(MemberRepository.class);
+        pageRequest = PageRequest.of(page - 1, PAGE_SIZE, SORT);
+        //키셋 시작 위치 = 직전 페이지의 마지막 회원 (측정 대상 아님)
+        position = page == 1 ? ScrollPosition.keyset() : ctx.readOnlyTx.execute(status -> {
+            Member last = memberRepository.findSliceByAge(DEEP_AGE, pageRequest.previous())
+                    .getContent().get(PAGE_SIZE - 1);
+            return positionAfter(last);
+        });
+    }
+
+    @Benchmark
+    public Integer offset(Context ctx) {
+        return ctx.readOnlyTx.execute(status ->
+                memberRepository.findSliceByAge(DEEP_AGE, pageRequest).getNumberOfElements());
+    }
+
+    @Benchmark
+    public Integer keyset(Context ctx) {
+        return ctx.readOnlyTx.execute(status ->
+                memberRepository.findByAgeOrderByUsernameDescIdDesc(DEEP_AGE, position, Limit.of(PAGE_SIZE)).size());
+    }
+
+    //키 순서는 정렬 순서와 같아야 한다. (MemberCursor와 같은 형태)
+    private static KeysetScrollPosition positionAfter(Member last) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("username", last.getUsername());
+        keys.put("id", last.getId());
+        return ScrollPosition.forward(keys);
+    }
+}
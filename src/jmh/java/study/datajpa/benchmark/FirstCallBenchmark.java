@@ -0,0 +1,66 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import study.datajpa.repository.CountStrategy;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+첫 호출 지연 (쿼리 플랜 예열 유무)
+포크마다 애플리케이션을 새로 띄우고 동적 JPQL을 쓰는 리포지토리 메서드들을 딱 한 번씩 호출한 시간을 잰다.
+(@Query/Named 쿼리는 예열 여부와 관계없이 로딩 시점에 파싱되므로 제외)
+로딩 시간은 포크가 끝날 때 출력한다.
+./gradlew jmh -PjmhIncludes=FirstCallBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(5)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class FirstCallBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Context extends BenchmarkContext {
+        @Param({"false", "true"})
+        public boolean warmup;
+
+        @Override
+        protected List<String> properties() {
+            List<String> properties = new ArrayList<>(super.properties());
+            properties.add("datajpa.query-warmup.enabled=" + warmup);
+            return properties;
+        }
+
+        @TearDown(Level.Trial)
+        public void report() {
+            System.out.println("startup(ms) warmup=" + warmup + ": " + startupMillis);
+        }
+    }
+
+    @Benchmark
+    public int firstCalls(Context ctx) {
+        MemberRepository memberRepository = ctx.bean(MemberRepository.class);
+        MemberJpaRepository memberJpaRepository = ctx.bean(MemberJpaRepository.class);
+        return ctx.readOnlyTx.execute(status ->
+                memberRepository.findByAge(10, PageRequest.of(0, 10), CountStrategy.EXACT).getNumberOfElements()
+                        + memberRepository.findByNamesInChunks(List.of("member1", "member2")).size()
+                        + memberJpaRepository.findByKeyset(10, ScrollPosition.keyset(), 10).size());
+    }
+}
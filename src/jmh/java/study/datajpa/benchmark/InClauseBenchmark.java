@@ -0,0 +1,52 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/*
+이름 목록 조회 (10, 1천, 10만 개)
+- inClause: in절 하나에 전부 바인딩 (in_clause_parameter_padding으로 2의 거듭제곱까지 채움)
+- chunked: 1000개씩 나눠서 동시에 조회 후 이름 순서로 합치기 (트랜잭션 밖에서 호출)
+- array: 배열 파라미터 하나로 = any(?) 조회
+회원 수(members)보다 많은 이름은 없는 이름이다.
+./gradlew jmh -PjmhIncludes=InClauseBenchmark -PjmhMembers=100000
+ */
+@State(Scope.Benchmark)
+public class InClauseBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int names;
+
+    MemberRepository memberRepository;
+    List<String> nameList;
+    String[] nameArray;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext ctx) {
+        memberRepository = ctx.bean(MemberRepository.class);
+        nameList = IntStream.range(0, names).mapToObj(i -> "member" + i).toList();
+        nameArray = nameList.toArray(String[]::new);
+    }
+
+    @Benchmark
+    public Integer inClause(BenchmarkContext ctx) {
+        return ctx.readOnlyTx.execute(status -> memberRepository.findByNames(nameList).size());
+    }
+
+    @Benchmark
+    public int chunked() {
+        return memberRepository.findByNamesInChunks(nameList).size();
+    }
+
+    @Benchmark
+    public Integer array(BenchmarkContext ctx) {
+        return ctx.readOnlyTx.execute(status -> memberRepository.findByNameArray(nameArray).size());
+    }
+}
@@ -0,0 +1,62 @@
+package study.datajpa.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberNameAge;
+import study.datajpa.dto.MemberSummary;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+엔티티 조회 후 MemberDto로 변환 vs Projections
+할당량 비교: ./gradlew jmh -PjmhIncludes=ProjectionBenchmark -PjmhMembers=100000 -PjmhProfilers=gc
+ */
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+    MemberRepository memberRepository;
+    EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext ctx) {
+        memberRepository = ctx.bean(MemberRepository.class);
+        em = ctx.bean(EntityManager.class);
+    }
+
+    private int randomAge() {
+        return ThreadLocalRandom.current().nextInt(BenchmarkContext.AGES);
+    }
+
+    //기존 방식: 회원 + 팀 엔티티를 fetch join으로 로딩한 뒤 MemberDto(Member)로 변환
+    @Benchmark
+    public List<MemberDto> entityToDto(BenchmarkContext ctx) {
+        int age = randomAge();
+        return ctx.readOnlyTx.execute(status -> em.createQuery(
+                        "select m from Member m left join fetch m.team t where m.age = :age", Member.class)
+                .setParameter("age", age)
+                .getResultList()
+                .stream()
+                .map(member -> new MemberDto(member.getId(), member.getUsername(),
+                        member.getTeam() == null ? null : member.getTeam().getName()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<MemberSummary> interfaceProjection(BenchmarkContext ctx) {
+        int age = randomAge();
+        return ctx.readOnlyTx.execute(status -> memberRepository.findSummaryByAge(age));
+    }
+
+    @Benchmark
+    public List<MemberNameAge> recordProjection(BenchmarkContext ctx) {
+        int age = randomAge();
+        return ctx.readOnlyTx.execute(status -> memberRepository.findNameAgeByAge(age));
+    }
+}
@@ -0,0 +1,41 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.datajpa.repository.MemberJpaRepository;
+
+/*
+일반 조회 vs 읽기 전용 조회 (회원 전체 로딩 + 커밋 시 flush)
+메모리 차이는 gc 프로파일러의 gc.alloc.rate.norm(op당 할당 바이트)으로 본다.
+./gradlew jmh -PjmhIncludes=ReadOnlyQueryBenchmark -PjmhMembers=100000 -PjmhProfilers=gc
+ */
+@State(Scope.Benchmark)
+public class ReadOnlyQueryBenchmark {
+    MemberJpaRepository memberJpaRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext ctx) {
+        memberJpaRepository = ctx.bean(MemberJpaRepository.class);
+    }
+
+    //스냅샷 생성 + 커밋 시 변경 감지
+    @Benchmark
+    public Integer managed(BenchmarkContext ctx) {
+        return ctx.tx.execute(status -> memberJpaRepository.findAll().size());
+    }
+
+    //쿼리 힌트로 읽기 전용
+    @Benchmark
+    public Integer readOnlyHint(BenchmarkContext ctx) {
+        return ctx.tx.execute(status -> memberJpaRepository.findAllReadOnly().size());
+    }
+
+    //@Transactional(readOnly = true)와 같은 읽기 전용 트랜잭션
+    @Benchmark
+    public Integer readOnlyTransaction(BenchmarkContext ctx) {
+        return ctx.readOnlyTx.execute(status -> memberJpaRepository.findAll().size());
+    }
+}
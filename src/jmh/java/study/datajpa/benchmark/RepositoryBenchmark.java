@@ -0,0 +1,98 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+리포지토리 주요 경로 측정
+./gradlew jmh -PjmhIncludes=RepositoryBenchmark
+ */
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+    MemberRepository memberRepository;
+    MemberJpaRepository memberJpaRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext ctx) {
+        memberRepository = ctx.bean(MemberRepository.class);
+        memberJpaRepository = ctx.bean(MemberJpaRepository.class);
+    }
+
+    private String randomUsername(BenchmarkContext ctx) {
+        return "member" + ThreadLocalRandom.current().nextInt(ctx.members);
+    }
+
+    //쿼리 메서드 이름으로 생성한 쿼리
+    @Benchmark
+    public List<Member> derivedQuery(BenchmarkContext ctx) {
+        return ctx.readOnlyTx.execute(status ->
+                memberRepository.findByUsernameAndAgeGreaterThan(randomUsername(ctx), -1));
+    }
+
+    //@Query JPQL
+    @Benchmark
+    public List<Member> queryAnnotation(BenchmarkContext ctx) {
+        int i = ThreadLocalRandom.current().nextInt(ctx.members);
+        return ctx.readOnlyTx.execute(status ->
+                memberRepository.findUser("member" + i, i % BenchmarkContext.AGES));
+    }
+
+    //new 연산자로 DTO 바로 조회 (전체)
+    @Benchmark
+    public Object dtoProjection(BenchmarkContext ctx) {
+        return ctx.readOnlyTx.execute(status -> memberRepository.findMemberDto());
+    }
+
+    //지연 로딩: 회원 조회 후 팀 이름 접근 (batch fetch 적용)
+    @Benchmark
+    public void lazyLoading(BenchmarkContext ctx, Blackhole bh) {
+        ctx.readOnlyTx.executeWithoutResult(status -> memberJpaRepository.findAll()
+                .forEach(member -> bh.consume(member.getTeam().getName())));
+    }
+
+    //fetch join
+    @Benchmark
+    public void fetchJoin(BenchmarkContext ctx, Blackhole bh) {
+        ctx.readOnlyTx.executeWithoutResult(status -> memberRepository.findMemberFetchJoin()
+                .forEach(member -> bh.consume(member.getTeam().getName())));
+    }
+
+    //@EntityGraph
+    @Benchmark
+    public void entityGraph(BenchmarkContext ctx, Blackhole bh) {
+        ctx.readOnlyTx.executeWithoutResult(status -> memberRepository.findMemberEntityGraph()
+                .forEach(member -> bh.consume(member.getTeam().getName())));
+    }
+
+    //offset 페이징 - 마지막 페이지 (count 쿼리 포함)
+    @Benchmark
+    public Object offsetPagingLastPage(BenchmarkContext ctx) {
+        int size = 10;
+        int perAge = ctx.members / BenchmarkContext.AGES;
+        int lastPage = Math.max(0, (perAge - 1) / size);
+        return ctx.readOnlyTx.execute(status -> memberRepository.findByAge(1,
+                PageRequest.of(lastPage, size, Sort.by(Sort.Direction.DESC, "username"))));
+    }
+
+    //벌크 수정 (매번 롤백해서 데이터는 그대로 유지)
+    @Benchmark
+    public Integer bulkAgePlus(BenchmarkContext ctx) {
+        return ctx.tx.execute(status -> {
+            int count = memberRepository.bulkAgePlus(BenchmarkContext.AGES / 2);
+            status.setRollbackOnly();
+            return count;
+        });
+    }
+}
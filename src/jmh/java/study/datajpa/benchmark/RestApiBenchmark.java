@@ -0,0 +1,79 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+회원 목록 API 부하 테스트 (초당 요청 수, 동시 요청 16개)
+- full: 매번 DB 조회 + JSON 응답
+- notModified: 이전 응답의 ETag를 보내서 304 (DB 조회 없음)
+./gradlew jmh -PjmhIncludes=RestApiBenchmark -PjmhMembers=10000
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class RestApiBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server extends BenchmarkContext {
+        HttpClient client;
+        URI membersUri;
+        String etag;
+
+        @Override
+        protected WebApplicationType webApplicationType() {
+            return WebApplicationType.SERVLET;
+        }
+
+        @Override
+        protected List<String> properties() {
+            List<String> properties = new ArrayList<>(super.properties());
+            properties.add("server.port=0");
+            return properties;
+        }
+
+        @Setup(Level.Trial)
+        public void connect() throws IOException, InterruptedException {
+            client = HttpClient.newHttpClient();
+            String port = context.getEnvironment().getProperty("local.server.port");
+            membersUri = URI.create("http://localhost:" + port + "/members?age=10&size=20");
+            etag = client.send(HttpRequest.newBuilder(membersUri).build(), HttpResponse.BodyHandlers.discarding())
+                    .headers().firstValue("ETag").orElseThrow();
+        }
+    }
+
+    @Benchmark
+    public int full(Server server) throws IOException, InterruptedException {
+        return send(server, HttpRequest.newBuilder(server.membersUri).build(), 200);
+    }
+
+    @Benchmark
+    public int notModified(Server server) throws IOException, InterruptedException {
+        return send(server, HttpRequest.newBuilder(server.membersUri).header("If-None-Match", server.etag).build(), 304);
+    }
+
+    private int send(Server server, HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = server.client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException("status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
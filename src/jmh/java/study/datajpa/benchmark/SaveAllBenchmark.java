@@ -0,0 +1,56 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.stream.IntStream;
+
+/*
+대량 저장 (rows명)
+- saveAll        : saveAll(List) 후 flush. 저장한 회원이 전부 영속성 컨텍스트에 남는다.
+- saveAllBatched : batch_size마다 flush 후 저장한 회원을 detach (BatchWriter)
+측정 후 롤백하므로 반복해도 데이터가 늘지 않는다. 처리량(rows/s) = rows / 평균 시간
+./gradlew jmh -PjmhIncludes=SaveAllBenchmark
+ */
+@State(Scope.Benchmark)
+public class SaveAllBenchmark {
+    static final int AGE = 400;
+
+    @Param({"1000", "20000"})
+    public int rows;
+
+    MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkContext ctx) {
+        memberRepository = ctx.bean(MemberRepository.class);
+    }
+
+    @Benchmark
+    public Integer saveAll(BenchmarkContext ctx) {
+        return ctx.tx.execute(status -> {
+            int saved = memberRepository.saveAll(IntStream.range(0, rows)
+                    .mapToObj(i -> new Member("saveAll" + i, AGE))
+                    .toList()).size();
+            memberRepository.flush();
+            status.setRollbackOnly();
+            return saved;
+        });
+    }
+
+    @Benchmark
+    public Long saveAllBatched(BenchmarkContext ctx) {
+        return ctx.tx.execute(status -> {
+            long saved = memberRepository.saveAllBatched(IntStream.range(0, rows)
+                    .mapToObj(i -> new Member("batched" + i, AGE)));
+            status.setRollbackOnly();
+            return saved;
+        });
+    }
+}
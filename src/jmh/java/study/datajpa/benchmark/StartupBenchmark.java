@@ -0,0 +1,101 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/*
+기동 시간: 애플리케이션 시작부터 첫 요청의 응답을 받을 때까지 (기본 프로필 vs fast-startup 프로필)
+- firstHello: DB를 쓰지 않는 /hello
+- firstMemberQuery: 회원/팀 조회가 나가는 /dashboard
+fast-startup은 ddl-auto: validate이므로 포크마다 기본 프로필로 한 번 띄워 테이블을 만들어 둔다.
+그래서 클래스 로딩이 끝난 JVM에서의 기동 시간이다. (완전한 콜드 스타트는 bootJar 실행 로그의 Started ... in 으로 확인)
+./gradlew jmh -PjmhIncludes=StartupBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(5)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+    private static final String DB_URL = "jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1";
+
+    @Param({"default", "fast-startup"})
+    public String profile;
+
+    HttpClient client = HttpClient.newHttpClient();
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void createSchema() {
+        new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties())
+                .run()
+                .close();
+    }
+
+    @Benchmark
+    public String firstHello() throws IOException, InterruptedException {
+        return firstRequest("/hello");
+    }
+
+    @Benchmark
+    public String firstMemberQuery() throws IOException, InterruptedException {
+        return firstRequest("/dashboard?age=1");
+    }
+
+    private String firstRequest(String path) throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .profiles(profile) //default는 기본 프로필 이름이므로 추가 설정 없음
+                .properties(properties())
+                .run();
+        String port = context.getEnvironment().getProperty("local.server.port");
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " -> " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private static String[] properties() {
+        return new String[]{
+                "server.port=0",
+                "spring.datasource.url=" + DB_URL,
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "decorator.datasource.p6spy.enable-logging=false",
+                "logging.level.root=warn"};
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+}
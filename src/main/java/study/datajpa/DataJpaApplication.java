@@ -3,11 +3,15 @@ package study.datajpa;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 //@EnableJpaRepositories(basePackages = "study.datajpa.repository")
 //스프링 부트를 사용하면 이 어노테이션도 생략 가능
 //보통 이 JavaConfig 파일은 최상위 디렉토리에 위치하므로 부트가 패키지 알아서 스캔
+@EnableAsync //리포지토리의 @Async 메서드를 applicationTaskExecutor에서 실행
+@EnableScheduling //팀 회원 수 주기 반영 (TeamMemberCounts)
 public class DataJpaApplication {
 
 	public static void main(String[] args) {
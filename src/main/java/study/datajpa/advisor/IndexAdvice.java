@@ -0,0 +1,22 @@
+package study.datajpa.advisor;
+
+/*
+쿼리 하나에 대한 인덱스 점검 결과
+- index: H2 실행 계획에서 사용한 인덱스 (테이블 전체 스캔이면 null)
+- sortedByIndex: order by를 인덱스 순서로 처리했는지 (별도 정렬 없음)
+- suggestion: 필요해 보이는 인덱스 DDL (문제 없으면 null)
+ */
+public record IndexAdvice(String query, String sql, String plan, String index,
+                          boolean tableScan, boolean sortedByIndex, double avgMillis, String suggestion) {
+
+    public boolean isMissingIndex() {
+        return suggestion != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-55s %8.3f ms  %s%s", query, avgMillis,
+                tableScan ? "TABLE SCAN" : index + (sortedByIndex ? " (sorted)" : ""),
+                suggestion == null ? "" : "  -> " + suggestion);
+    }
+}
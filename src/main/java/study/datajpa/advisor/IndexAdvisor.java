@@ -0,0 +1,274 @@
+package study.datajpa.advisor;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.ModelPart;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.named.NamedObjectRepository;
+import org.hibernate.query.sqm.spi.NamedSqmQueryMemento;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+인덱스 점검 도구 (H2 EXPLAIN)
+리포지토리 쿼리 메서드(@Query, NamedQuery, 메서드 이름 쿼리)와 엔티티의 NamedQuery에서
+조건/정렬 컬럼을 뽑아 같은 모양의 SQL을 만들고, 실행 계획과 실행 시간을 확인한다.
+테이블 전체 스캔이거나 정렬을 인덱스로 처리하지 못하면 인덱스를 제안한다.
+실행: datajpa.index-advisor.enabled=true 로 띄우면 로딩 직후 로그로 보고 (또는 analyze() 직접 호출)
+ */
+@Slf4j
+@Component
+public class IndexAdvisor {
+    private static final Pattern PLAN_INDEX = Pattern.compile("/\\* [\\w\"]+\\.([\\w\"]+)");
+    //toSql()이 만든 SQL에서 테이블, = 조건 컬럼, 범위 조건 컬럼
+    private static final Pattern SQL_TABLE = Pattern.compile("from (\\S+)");
+    private static final Pattern SQL_EQUALITY = Pattern.compile("(\\w+) = \\?");
+    private static final Pattern SQL_RANGE = Pattern.compile("(\\w+) > \\?");
+    private static final int RUNS = 5;
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final ListableBeanFactory beanFactory;
+    private final DataSource dataSource;
+    private final boolean reportOnStartup;
+
+    public IndexAdvisor(EntityManagerFactory emf, ListableBeanFactory beanFactory, DataSource dataSource,
+                        @Value("${datajpa.index-advisor.enabled:false}") boolean reportOnStartup) {
+        this.sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        this.beanFactory = beanFactory;
+        this.dataSource = dataSource;
+        this.reportOnStartup = reportOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportOnStartup() {
+        if (!reportOnStartup) {
+            return;
+        }
+        List<IndexAdvice> advices = analyze();
+        log.info("index advisor: {} queries, {} missing index\n{}", advices.size(),
+                advices.stream().filter(IndexAdvice::isMissingIndex).count(),
+                String.join("\n", advices.stream().map(IndexAdvice::toString).toList()));
+    }
+
+    public List<IndexAdvice> analyze() {
+        Map<String, QueryShape> shapes = new LinkedHashMap<>();
+        collectRepositoryQueries(shapes);
+        collectNamedQueries(shapes);
+
+        Map<String, IndexAdvice> bySql = new HashMap<>();
+        List<IndexAdvice> advices = new ArrayList<>();
+        shapes.forEach((query, shape) -> {
+            if (shape.isEmpty()) {
+                return;
+            }
+            toSql(shape).ifPresent(sql -> {
+                IndexAdvice advice = bySql.computeIfAbsent(sql, key -> explain(query, shape, sql));
+                advices.add(new IndexAdvice(query, advice.sql(), advice.plan(), advice.index(),
+                        advice.tableScan(), advice.sortedByIndex(), advice.avgMillis(), advice.suggestion()));
+            });
+        });
+        return advices;
+    }
+
+    //JPQL 하나만 점검 (새 쿼리를 추가하기 전에 확인용)
+    public Optional<IndexAdvice> analyze(String jpql) {
+        return QueryShape.fromJpql(jpql)
+                .flatMap(shape -> toSql(shape).map(sql -> explain(jpql, shape, sql)));
+    }
+
+    private void collectRepositoryQueries(Map<String, QueryShape> shapes) {
+        Repositories repositories = new Repositories(beanFactory);
+        for (Class<?> domainType : repositories) {
+            Optional<RepositoryInformation> information = repositories.getRepositoryInformationFor(domainType);
+            if (information.isEmpty()) {
+                continue;
+            }
+            String entityName = entityType(domainType).getName();
+            String repository = information.get().getRepositoryInterface().getSimpleName();
+            for (Method method : information.get().getQueryMethods()) {
+                String label = repository + "." + method.getName();
+                try {
+                    repositoryQueryShape(method, domainType, entityName).ifPresent(shape -> shapes.put(label, shape));
+                } catch (RuntimeException e) {
+                    log.debug("index advisor skipped {}: {}", label, e.getMessage());
+                }
+            }
+        }
+    }
+
+    //Spring Data가 쿼리를 고르는 순서와 같게: @Query(value) -> @Query(name)/엔티티명.메서드명 NamedQuery -> 메서드 이름
+    private Optional<QueryShape> repositoryQueryShape(Method method, Class<?> domainType, String entityName) {
+        Query query = method.getAnnotation(Query.class);
+        if (query != null && query.nativeQuery()) {
+            return Optional.empty();
+        }
+        if (query != null && StringUtils.hasText(query.value())) {
+            return QueryShape.fromJpql(query.value());
+        }
+        String namedQuery = query != null && StringUtils.hasText(query.name())
+                ? query.name() : entityName + "." + method.getName();
+        NamedSqmQueryMemento memento = namedQueries().getSqmQueryMemento(namedQuery);
+        if (memento != null) {
+            return QueryShape.fromJpql(memento.getHqlString());
+        }
+        return Optional.of(QueryShape.fromMethodName(method.getName(), domainType, entityName));
+    }
+
+    private void collectNamedQueries(Map<String, QueryShape> shapes) {
+        namedQueries().visitSqmQueryMementos(memento ->
+                QueryShape.fromJpql(memento.getHqlString())
+                        .ifPresent(shape -> shapes.put("@NamedQuery " + memento.getRegistrationName(), shape)));
+    }
+
+    private NamedObjectRepository namedQueries() {
+        return sessionFactory.getQueryEngine().getNamedObjectRepository();
+    }
+
+    //조건/정렬 컬럼만 남긴 SQL: select * from member where username = ? and age > ? order by username desc
+    private Optional<String> toSql(QueryShape shape) {
+        Optional<EntityType<?>> entity = sessionFactory.getJpaMetamodel().getEntities().stream()
+                .filter(type -> type.getName().equals(shape.entityName()))
+                .findFirst();
+        if (entity.isEmpty()) {
+            return Optional.empty();
+        }
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entity.get().getJavaType());
+        if (!(persister instanceof AbstractEntityPersister entityPersister)) {
+            return Optional.empty();
+        }
+
+        List<String> conditions = new ArrayList<>();
+        shape.equality().forEach(property -> columns(persister, property).forEach(c -> conditions.add(c + " = ?")));
+        shape.range().forEach(property -> columns(persister, property).forEach(c -> conditions.add(c + " > ?")));
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : shape.sort()) {
+            columns(persister, order.getProperty())
+                    .forEach(c -> orders.add(c + (order.isDescending() ? " desc" : "")));
+        }
+
+        if (conditions.isEmpty() && orders.isEmpty()) {
+            return Optional.empty();
+        }
+        StringBuilder sql = new StringBuilder("select * from ").append(entityPersister.getTableName());
+        if (!conditions.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", conditions));
+        }
+        if (!orders.isEmpty()) {
+            sql.append(" order by ").append(String.join(", ", orders));
+        }
+        return Optional.of(sql.toString());
+    }
+
+    private List<String> columns(EntityPersister persister, String property) {
+        ModelPart part = persister.findSubPart(property, null);
+        if (part == null && property.equals(persister.getIdentifierPropertyName())) {
+            part = persister.getIdentifierMapping();
+        }
+        List<String> columns = new ArrayList<>();
+        if (part != null) {
+            part.forEachSelectable((index, selectable) -> columns.add(selectable.getSelectionExpression()));
+        }
+        return columns;
+    }
+
+    private IndexAdvice explain(String query, QueryShape shape, String sql) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            String plan;
+            try (PreparedStatement explain = prepare(connection, "explain " + sql);
+                 ResultSet rs = explain.executeQuery()) {
+                rs.next();
+                plan = rs.getString(1);
+            }
+
+            long elapsed = 0;
+            try (PreparedStatement statement = prepare(connection, sql)) {
+                for (int i = 0; i < RUNS; i++) {
+                    long start = System.nanoTime();
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            //결과를 끝까지 읽는 시간까지 측정
+                        }
+                    }
+                    elapsed += System.nanoTime() - start;
+                }
+            }
+
+            boolean tableScan = plan.contains(".tableScan");
+            boolean sortedByIndex = plan.contains("index sorted");
+            Matcher index = PLAN_INDEX.matcher(plan);
+            String indexName = !tableScan && index.find() ? index.group(1) : null;
+            boolean needsIndex = tableScan || shape.sort().isSorted() && !sortedByIndex;
+            return new IndexAdvice(query, sql, plan, indexName, tableScan, sortedByIndex,
+                    elapsed / (double) RUNS / 1_000_000, needsIndex ? suggest(sql) : null);
+        } catch (SQLException e) {
+            throw new IllegalStateException("EXPLAIN 실패: " + sql, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    //모든 파라미터를 문자열로 바인딩 (H2가 컬럼 타입으로 변환한다. 실행 계획에는 값이 영향을 주지 않음)
+    private PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        int parameters = statement.getParameterMetaData().getParameterCount();
+        for (int i = 1; i <= parameters; i++) {
+            statement.setString(i, "0");
+        }
+        return statement;
+    }
+
+    //= 조건 컬럼 -> 정렬 컬럼 -> 범위 조건 컬럼 순서 (범위 조건 뒤의 컬럼은 인덱스로 정렬/검색할 수 없다)
+    private String suggest(String sql) {
+        Matcher table = SQL_TABLE.matcher(sql);
+        table.find();
+        Map<String, String> columns = new LinkedHashMap<>(); //컬럼명 -> 인덱스 정의 (username desc)
+        Matcher equality = SQL_EQUALITY.matcher(sql);
+        while (equality.find()) {
+            columns.putIfAbsent(equality.group(1), equality.group(1));
+        }
+        int orderBy = sql.indexOf(" order by ");
+        if (orderBy >= 0) {
+            for (String order : sql.substring(orderBy + " order by ".length()).split(", ")) {
+                columns.putIfAbsent(order.split(" ")[0], order);
+            }
+        }
+        Matcher range = SQL_RANGE.matcher(sql);
+        while (range.find()) {
+            columns.putIfAbsent(range.group(1), range.group(1));
+        }
+        return "create index idx_" + table.group(1) + "_" + String.join("_", columns.keySet())
+                + " on " + table.group(1) + " (" + String.join(", ", columns.values()) + ")";
+    }
+
+    private EntityType<?> entityType(Class<?> domainType) {
+        return sessionFactory.getJpaMetamodel().entity(domainType);
+    }
+}
@@ -0,0 +1,96 @@
+package study.datajpa.advisor;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+인덱스 선택에 필요한 쿼리의 모양
+대상 엔티티의 속성 중 = / in 조건, 범위 조건(>, <, like 등), 정렬 속성만 뽑는다.
+조인한 엔티티(t.name 등)와 중첩 속성(team.name) 조건은 대상 테이블 인덱스와 무관하므로 제외
+ */
+record QueryShape(String entityName, List<String> equality, List<String> range, Sort sort) {
+
+    private static final Pattern ROOT = Pattern.compile(
+            "\\b(?:from|update)\\s+(\\w+)\\s+(?:as\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHERE = Pattern.compile("\\bwhere\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_BY = Pattern.compile("\\border\\s+by\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_ITEM = Pattern.compile(
+            "^(\\w+)\\.(\\w+)(?:\\s+(asc|desc))?$", Pattern.CASE_INSENSITIVE);
+
+    boolean isEmpty() {
+        return equality.isEmpty() && range.isEmpty() && sort.isUnsorted();
+    }
+
+    //JPQL - 정규식으로 루트 엔티티 별칭의 조건만 읽는다.
+    static Optional<QueryShape> fromJpql(String jpql) {
+        Matcher root = ROOT.matcher(jpql);
+        if (!root.find()) {
+            return Optional.empty();
+        }
+        String entityName = root.group(1);
+        String alias = root.group(2);
+
+        Matcher orderBy = ORDER_BY.matcher(jpql);
+        int orderByStart = orderBy.find() ? orderBy.start() : jpql.length();
+        Matcher where = WHERE.matcher(jpql);
+        String whereClause = where.find() && where.end() < orderByStart
+                ? jpql.substring(where.end(), orderByStart) : "";
+
+        List<String> equality = new ArrayList<>();
+        List<String> range = new ArrayList<>();
+        Matcher predicate = Pattern.compile(
+                "\\b" + Pattern.quote(alias) + "\\.(\\w+)\\s*(=|<>|!=|>=|<=|>|<|in\\b|like\\b|between\\b)",
+                Pattern.CASE_INSENSITIVE).matcher(whereClause);
+        while (predicate.find()) {
+            String operator = predicate.group(2).toLowerCase(Locale.ROOT);
+            addDistinct(operator.equals("=") || operator.equals("in") ? equality : range, predicate.group(1));
+        }
+        range.removeAll(equality);
+
+        List<Sort.Order> orders = new ArrayList<>();
+        if (orderByStart < jpql.length()) {
+            for (String item : jpql.substring(orderBy.end()).split(",")) {
+                Matcher order = ORDER_ITEM.matcher(item.trim());
+                if (order.matches() && order.group(1).equals(alias)) {
+                    orders.add("desc".equalsIgnoreCase(order.group(3))
+                            ? Sort.Order.desc(order.group(2)) : Sort.Order.asc(order.group(2)));
+                }
+            }
+        }
+        return Optional.of(new QueryShape(entityName, equality, range, Sort.by(orders)));
+    }
+
+    //쿼리 메서드 이름 (findByUsernameAndAgeGreaterThan, findByAgeOrderByUsernameDescIdDesc ...)
+    static QueryShape fromMethodName(String methodName, Class<?> domainType, String entityName) {
+        PartTree tree = new PartTree(methodName, domainType);
+        List<String> equality = new ArrayList<>();
+        List<String> range = new ArrayList<>();
+        for (PartTree.OrPart orPart : tree) {
+            for (Part part : orPart) {
+                PropertyPath property = part.getProperty();
+                if (property.hasNext()) {
+                    continue;
+                }
+                boolean isEquality = part.getType() == Part.Type.SIMPLE_PROPERTY || part.getType() == Part.Type.IN;
+                addDistinct(isEquality ? equality : range, property.getSegment());
+            }
+        }
+        range.removeAll(equality);
+        return new QueryShape(entityName, equality, range, tree.getSort());
+    }
+
+    private static void addDistinct(List<String> list, String property) {
+        if (!list.contains(property)) {
+            list.add(property);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/*
+커넥션 풀 크기 기본값
+spring.datasource.hikari.maximum-pool-size를 지정하지 않으면 CPU 코어 수 * pool-size-per-core + 1로 정한다.
+(DB 작업은 CPU와 I/O 대기가 섞이므로 코어 수보다 조금 크게. 너무 크면 DB에서 경합만 늘어난다)
+비동기 쿼리(applicationTaskExecutor)의 동시 실행 수는 풀 크기의 절반으로 제한한다.
+나머지 절반은 요청 스레드와 ParallelQueries 몫. (동시 실행 수가 풀보다 크면 connection-timeout까지 기다리다 실패한다)
+ */
+@Slf4j
+@Configuration
+public class DataSourcePoolConfig {
+
+    //지정한 maximum-pool-size, 없으면 코어 수 기준 기본값
+    public static int poolSize(Environment environment) {
+        Integer configured = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class);
+        if (configured != null && configured > 0) {
+            return configured;
+        }
+        int poolSizePerCore = environment.getProperty("datajpa.datasource.pool-size-per-core", Integer.class, 2);
+        return Runtime.getRuntime().availableProcessors() * poolSizePerCore + 1;
+    }
+
+    //커넥션을 쓰는 작업 스레드 수의 상한 (풀의 절반, 최소 1)
+    public static int workerLimit(Environment environment) {
+        return Math.max(1, poolSize(environment) / 2);
+    }
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        int poolSize = poolSize(environment);
+        int workerLimit = workerLimit(environment);
+        return new BeanPostProcessor() {
+            //풀이 만들어지기 전(afterPropertiesSet 전)에 줄인다. 더 작게 설정했으면 그대로 둔다.
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (!"applicationTaskExecutor".equals(beanName)) {
+                    return bean;
+                }
+                if (bean instanceof ThreadPoolTaskExecutor executor) {
+                    executor.setCorePoolSize(Math.min(executor.getCorePoolSize(), workerLimit));
+                    executor.setMaxPoolSize(Math.min(executor.getMaxPoolSize(), workerLimit));
+                    log.info("{} pool size = {} (connection pool {})", beanName, executor.getMaxPoolSize(), poolSize);
+                } else if (bean instanceof SimpleAsyncTaskExecutor executor) { //가상 스레드 (Java 21)
+                    int limit = executor.getConcurrencyLimit();
+                    executor.setConcurrencyLimit(limit < 0 ? workerLimit : Math.min(limit, workerLimit));
+                    log.info("{} concurrency limit = {} (connection pool {})", beanName, executor.getConcurrencyLimit(), poolSize);
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                //바인딩은 끝났고 풀은 첫 getConnection 때 만들어지므로 여기서 바꿔도 된다.
+                if (bean instanceof HikariDataSource dataSource && dataSource.getMaximumPoolSize() < 1) {
+                    dataSource.setMaximumPoolSize(poolSize);
+                    log.info("{} maximumPoolSize = {} (cores={})", beanName, poolSize, Runtime.getRuntime().availableProcessors());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package study.datajpa.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/*
+읽기 전용 트랜잭션(@Transactional(readOnly = true))은 replica로, 나머지는 primary로 보낸다.
+트랜잭션 속성이 정해진 뒤에 커넥션을 얻어야 하므로 반드시 LazyConnectionDataSourceProxy로 감싸서 사용한다.
+
+replica 지연 대비: 쓰기 트랜잭션이 커밋된 스레드는 stickiness 동안 읽기 전용 트랜잭션도 primary를 사용한다.
+(방금 쓴 데이터를 바로 다시 읽는 경우. 스레드 단위이므로 같은 요청 안에서만 보장된다)
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final ThreadLocal<Long> primaryUntil = new ThreadLocal<>();
+    private final long stickinessNanos;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration stickiness) {
+        this.stickinessNanos = stickiness.toNanos();
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return isStickyToPrimary() ? PRIMARY : REPLICA;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    primaryUntil.set(System.nanoTime() + stickinessNanos);
+                }
+            });
+        }
+        return PRIMARY;
+    }
+
+    private boolean isStickyToPrimary() {
+        Long until = primaryUntil.get();
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until < 0) {
+            return true;
+        }
+        primaryUntil.remove();
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import study.datajpa.repository.TableVersions;
+
+/*
+조건부 GET (If-None-Match / If-Modified-Since)
+응답에 쓰이는 테이블들의 버전으로 ETag/Last-Modified를 만들고, 클라이언트가 가진 값과 같으면 304로 끝낸다.
+DB 조회 전에 호출해야 한다. true면 컨트롤러는 null을 반환한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGet {
+    private final TableVersions tableVersions;
+
+    public boolean notModified(WebRequest request, Class<?>... entityTypes) {
+        return request.checkNotModified(tableVersions.etag(entityTypes), tableVersions.lastModified(entityTypes));
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.DashboardDto;
+import study.datajpa.dto.MemberSummary;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.ParallelQueries;
+import study.datajpa.repository.TeamJpaRepository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequiredArgsConstructor
+public class DashboardController {
+    private final MemberRepository memberRepository;
+    private final MemberJpaRepository memberJpaRepository;
+    private final TeamJpaRepository teamJpaRepository;
+    private final ParallelQueries parallelQueries;
+
+    //회원 목록, 팀 목록, 각종 count를 동시에 조회해서 합친다.
+    @GetMapping("/dashboard")
+    public DashboardDto dashboard(@RequestParam(defaultValue = "0") int age,
+                                  @RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = "20") int size) {
+        CompletableFuture<Slice<MemberSummary>> members = parallelQueries.submit(() ->
+                memberRepository.findSummarySliceByAge(age,
+                        PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "username"))));
+        CompletableFuture<List<String>> teamNames = parallelQueries.submit(() ->
+                teamJpaRepository.findAll().stream().map(Team::getName).toList());
+        CompletableFuture<Long> memberCount = parallelQueries.submit(memberJpaRepository::count);
+        CompletableFuture<Long> teamCount = parallelQueries.submit(teamJpaRepository::count);
+        CompletableFuture<Long> ageCount = parallelQueries.submit(() -> memberJpaRepository.cachedTotalCount(age));
+
+        parallelQueries.awaitAll(members, teamNames, memberCount, teamCount, ageCount);
+
+        return new DashboardDto(
+                members.join().getContent(),
+                members.join().hasNext(),
+                teamNames.join(),
+                memberCount.join(),
+                teamCount.join(),
+                ageCount.join());
+    }
+}
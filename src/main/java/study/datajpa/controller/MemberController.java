@@ -0,0 +1,104 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSummary;
+import study.datajpa.dto.SliceResponse;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@RestController
+public class MemberController {
+    private final MemberRepository memberRepository;
+    private final ConditionalGet conditionalGet;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+    private final int exportFetchSize;
+
+    public MemberController(MemberRepository memberRepository,
+                            ConditionalGet conditionalGet,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${datajpa.export.fetch-size:500}") int exportFetchSize) {
+        this.memberRepository = memberRepository;
+        this.conditionalGet = conditionalGet;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    //회원 목록 (Slice: count 쿼리 없이 size + 1개를 읽어 다음 페이지 여부만 판단)
+    //회원/팀이 바뀌지 않았으면 DB를 조회하지 않고 304
+    @GetMapping("/members")
+    public ResponseEntity<SliceResponse<MemberSummary>> members(@RequestParam(required = false) Integer age,
+                                                                @RequestParam(defaultValue = "0") int page,
+                                                                @RequestParam(defaultValue = "20") int size,
+                                                                WebRequest request) {
+        if (conditionalGet.notModified(request, Member.class, Team.class)) {
+            return null;
+        }
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by("id"));
+        Slice<MemberSummary> members = age == null
+                ? memberRepository.findSummarySlice(pageRequest)
+                : memberRepository.findSummarySliceByAge(age, pageRequest);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache()) //캐시해도 되지만 쓸 때마다 ETag로 확인
+                .body(SliceResponse.of(members));
+    }
+
+    @GetMapping("/members/{id}")
+    public ResponseEntity<MemberSummary> member(@PathVariable Long id, WebRequest request) {
+        if (conditionalGet.notModified(request, Member.class, Team.class)) {
+            return null;
+        }
+        return memberRepository.findSummaryById(id)
+                .map(member -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(member))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    //전체 회원 내보내기 (NDJSON: 한 줄에 회원 하나)
+    //전체 결과를 메모리에 올리지 않고 DB 커서에서 읽는 대로 응답에 쓴다. (chunked 전송)
+    @GetMapping(value = "/members/export", produces = "application/x-ndjson")
+    public StreamingResponseBody export(@RequestParam(required = false) Integer fetchSize) {
+        int size = fetchSize != null ? fetchSize : exportFetchSize;
+        //응답은 컨트롤러가 반환된 뒤 다른 스레드에서 쓰이므로 트랜잭션도 그 안에서 연다.
+        return out -> readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<MemberDto> members = memberRepository.streamMemberDto(size)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                Iterator<MemberDto> iterator = members.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(objectMapper.writeValueAsString(iterator.next()));
+                    writer.write('\n');
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import study.datajpa.dto.MemberSummary;
+import study.datajpa.dto.SliceResponse;
+import study.datajpa.dto.TeamSummary;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+    private final TeamRepository teamRepository;
+    private final MemberRepository memberRepository;
+    private final ConditionalGet conditionalGet;
+
+    @GetMapping("/teams")
+    public ResponseEntity<SliceResponse<TeamSummary>> teams(@RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int size,
+                                                            WebRequest request) {
+        if (conditionalGet.notModified(request, Team.class)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(SliceResponse.of(teamRepository.findSummarySlice(PageRequest.of(page, size, Sort.by("id")))));
+    }
+
+    //팀의 회원 목록 - 팀 엔티티와 members 컬렉션을 로딩하지 않고 회원 projection으로 바로 조회
+    @GetMapping("/teams/{id}/members")
+    public ResponseEntity<SliceResponse<MemberSummary>> teamMembers(@PathVariable Long id,
+                                                                    @RequestParam(defaultValue = "0") int page,
+                                                                    @RequestParam(defaultValue = "20") int size,
+                                                                    WebRequest request) {
+        if (conditionalGet.notModified(request, Member.class, Team.class)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(SliceResponse.of(memberRepository.findSummarySliceByTeamId(id, PageRequest.of(page, size, Sort.by("id")))));
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Data
+public class DashboardDto {
+    private List<MemberSummary> members;
+    private boolean hasNextMembers;
+    private List<String> teamNames;
+    private long memberCount;
+    private long teamCount;
+    private long ageCount; //age 조건에 해당하는 회원 수
+}
@@ -0,0 +1,6 @@
+package study.datajpa.dto;
+
+//record(클래스) 기반 projection
+//쿼리 메서드 이름으로 만든 쿼리는 생성자 파라미터 이름에 해당하는 컬럼만 select해서 바로 생성한다.
+public record MemberNameAge(String username, int age) {
+}
@@ -0,0 +1,10 @@
+package study.datajpa.dto;
+
+//인터페이스 기반 projection
+//SpringDataJpa가 조회 결과(Tuple)를 감싸는 프록시를 만들어준다. 엔티티는 만들지 않는다.
+//@Query에서는 select 절의 alias가 getter 이름과 같아야 한다.
+public interface MemberSummary {
+    Long getId();
+    String getUsername();
+    String getTeamName();
+}
@@ -0,0 +1,13 @@
+package study.datajpa.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+//Slice를 그대로 JSON으로 내보내지 않고 필요한 값만 (Slice는 total count가 없다)
+public record SliceResponse<T>(List<T> content, int page, int size, boolean hasNext) {
+
+    public static <T> SliceResponse<T> of(Slice<T> slice) {
+        return new SliceResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+}
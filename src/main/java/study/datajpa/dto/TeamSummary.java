@@ -0,0 +1,8 @@
+package study.datajpa.dto;
+
+//인터페이스 기반 projection (팀 목록 API)
+public interface TeamSummary {
+    Long getId();
+    String getName();
+    long getMemberCount(); //team.member_count (수 초 늦을 수 있음)
+}
@@ -2,20 +2,44 @@ package study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.jpa.HibernateHints;
+import study.datajpa.repository.MemberCountCacheListener;
+import study.datajpa.repository.TableVersionListener;
+import study.datajpa.repository.TeamMemberCountListener;
 
 @Entity
+//username 단독/username+age 조건은 앞쪽 컬럼(username)으로 (findByUsername, findByNames, findUser)
+//age 조건 + username desc 정렬은 두 번째 인덱스로 정렬 없이 읽는다. (findByAge, findByPage, 키셋 페이징, bulkAgePlus)
+@Table(indexes = {
+        @Index(name = "idx_member_username_age", columnList = "username, age"),
+        @Index(name = "idx_member_age_username", columnList = "age, username desc, member_id desc")
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 @NamedQuery(
         name="Member.findByUsername", //관례상 Entity명.메서드명
-        query="select m from Member m where m.username = :username"
+        query="select m from Member m where m.username = :username",
+        hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true") //쿼리 캐시 대상
 )
+//MemberJpaRepository용 JPQL. Named 쿼리는 애플리케이션 로딩 시점에 한 번 파싱/검증되고 호출마다 문자열을 만들지 않는다.
+//이름이 Member.<MemberRepository 메서드명>과 겹치면 Spring Data가 그 메서드의 쿼리로 사용하므로 겹치지 않게 짓는다.
+@NamedQuery(name = "Member.pageByAge", query = "select m from Member m where m.age = :age order by m.username desc")
+@NamedQuery(name = "Member.totalCountByAge", query = "select count(m) from Member m where m.age = :age")
+@NamedQuery(name = "Member.bulkAgePlusFromAge", query = "update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age")
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team"))
+@EntityListeners({MemberCountCacheListener.class, TableVersionListener.class, TeamMemberCountListener.class}) //회원 수 캐시 무효화, HTTP 캐시용 버전, 팀 회원 수
+@Cacheable //2차 캐시 대상 (l2cache 프로필에서 동작)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 //연관관계 필드는 toString에 포함시키지 않는다. 무한루프에 빠질 수 있음
 public class Member {
     @Id
-    @GeneratedValue
+    //시퀀스를 allocationSize만큼 미리 받아와 메모리에서 id를 할당(pooled) -> insert마다 시퀀스 조회하지 않음
+    //id가 persist 시점에 정해지므로 JDBC batch insert가 가능하다. (IDENTITY는 불가)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -23,6 +47,12 @@ public class Member {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id") //FK를 적는다
     private Team team;
+    //낙관적 락: update ... where member_id = ? and version = ? 로 수정하고, 그 사이 다른 트랜잭션이 수정했으면
+    //0건 수정 -> OptimisticLockException. 벌크 수정 쿼리도 version을 같이 올려야 한다.
+    //래퍼 타입이라 null이면 새 엔티티로 판단한다. (save 시 persist)
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
 
     //Jpa를 사용하려면 Entity는 기본 생성자 필수
     //프록시 기술 때문에 protected 이상이어야함. //롬복으로 대체 가능
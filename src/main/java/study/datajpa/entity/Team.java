@@ -2,6 +2,13 @@ package study.datajpa.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
+import org.hibernate.annotations.OptimisticLock;
+import study.datajpa.repository.TableVersionListener;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,13 +17,33 @@ import java.util.List;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED) //Jpa 스펙상 필요한 기본 생성자
 @ToString(of = {"id", "name"})
+@EntityListeners(TableVersionListener.class) //HTTP 캐시용 버전
+@Cacheable //2차 캐시 대상 (l2cache 프로필에서 동작)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize(size = 100) //Member.team 프록시를 초기화할 때 다른 팀 프록시도 in절로 같이 가져온다.
 public class Team {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long id;
     private String name;
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+    //회원 수 (members 컬렉션이나 count 쿼리 없이 목록에 보여주기 위한 비정규화 컬럼)
+    //TeamMemberCounts가 회원 저장/팀 변경/삭제를 모아서 주기적으로 반영한다. 엔티티 수정으로 덮어쓰지 않도록 updatable = false
+    @Column(name = "member_count", nullable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private long memberCount;
     @OneToMany(mappedBy = "team")
+    @BatchSize(size = 100) //여러 팀의 members 컬렉션을 in절로 한번에 초기화
+    @OptimisticLock(excluded = true) //회원이 팀을 옮길 때마다 팀 version이 올라가서 팀 수정과 충돌하지 않도록
+    //extra lazy: size()는 count 쿼리, contains()는 한 건 존재 여부 쿼리로 처리하고 컬렉션 전체를 읽지 않는다.
+    //add()는 mappedBy 쪽 bag이라 초기화 없이 대기열에 쌓인다. (changeTeam)
+    //순서 컬럼이 없는 bag이므로 get(index)/반복은 전체를 읽는다. 큰 팀은 MemberRepository.iterateByTeamId로 나눠서 읽는다.
+    @SuppressWarnings("deprecation") //Hibernate 6에서 deprecated지만 대체 매핑이 없다. (Hibernate.size/contains는 호출하는 쪽을 바꿔야 함)
+    @LazyCollection(LazyCollectionOption.EXTRA)
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
@@ -0,0 +1,13 @@
+package study.datajpa.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+//하이버네이트가 SQL을 준비할 때마다 현재 스레드의 실행 수를 센다. SQL은 바꾸지 않는다.
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        ThreadQueryStats.current().statementPrepared();
+        return sql;
+    }
+}
@@ -0,0 +1,13 @@
+package study.datajpa.metrics;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+//엔티티가 만들어질(hydrate) 때마다 현재 스레드의 로딩 수를 센다.
+public class EntityLoadCounter implements PostLoadEventListener {
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        ThreadQueryStats.current().entityLoaded();
+    }
+}
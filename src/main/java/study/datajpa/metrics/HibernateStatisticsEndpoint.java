@@ -0,0 +1,83 @@
+package study.datajpa.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+/actuator/hibernate : 하이버네이트 통계 요약 (hibernate.generate_statistics=true 일 때 값이 쌓인다)
+개별 값은 /actuator/metrics/hibernate.* 에도 있지만 한 화면에서 비율까지 보기 위한 요약이다.
+DELETE /actuator/hibernate 로 통계를 초기화한다.
+ */
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+    private final Statistics statistics;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("enabled", statistics.isStatisticsEnabled());
+        summary.put("since", statistics.getStart());
+
+        Map<String, Object> sessions = new LinkedHashMap<>();
+        sessions.put("opened", statistics.getSessionOpenCount());
+        sessions.put("transactions", statistics.getTransactionCount());
+        sessions.put("flushes", statistics.getFlushCount());
+        sessions.put("statementsPrepared", statistics.getPrepareStatementCount());
+        sessions.put("optimisticFailures", statistics.getOptimisticFailureCount());
+        summary.put("sessions", sessions);
+
+        Map<String, Object> entities = new LinkedHashMap<>();
+        entities.put("loads", statistics.getEntityLoadCount());
+        entities.put("fetches", statistics.getEntityFetchCount()); //지연 로딩/배치 페치로 따로 읽은 수 (N+1 확인)
+        entities.put("inserts", statistics.getEntityInsertCount());
+        entities.put("updates", statistics.getEntityUpdateCount());
+        entities.put("deletes", statistics.getEntityDeleteCount());
+        entities.put("collectionLoads", statistics.getCollectionLoadCount());
+        entities.put("collectionFetches", statistics.getCollectionFetchCount());
+        summary.put("entities", entities);
+
+        Map<String, Object> queries = new LinkedHashMap<>();
+        queries.put("executions", statistics.getQueryExecutionCount());
+        queries.put("maxTimeMillis", statistics.getQueryExecutionMaxTime());
+        queries.put("slowest", statistics.getQueryExecutionMaxTimeQueryString());
+        queries.put("planCacheHits", statistics.getQueryPlanCacheHitCount());
+        queries.put("planCacheMisses", statistics.getQueryPlanCacheMissCount());
+        queries.put("planCacheHitRatio",
+                ratio(statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount()));
+        summary.put("queries", queries);
+
+        Map<String, Object> secondLevelCache = new LinkedHashMap<>();
+        secondLevelCache.put("hits", statistics.getSecondLevelCacheHitCount());
+        secondLevelCache.put("misses", statistics.getSecondLevelCacheMissCount());
+        secondLevelCache.put("puts", statistics.getSecondLevelCachePutCount());
+        secondLevelCache.put("hitRatio",
+                ratio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+        secondLevelCache.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        secondLevelCache.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        summary.put("secondLevelCache", secondLevelCache);
+        return summary;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.clear();
+    }
+
+    private double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,181 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/*
+리포지토리 메서드별 지표
+- repository.invocations : 실행 시간 (히스토그램)
+- repository.statements  : 메서드 안에서 실행된 SQL 수
+- repository.rows        : 반환한 결과 건수
+- repository.entities    : 메서드 안에서 만들어진 엔티티 수
+- repository.n_plus_one.suspected : 결과 건수만큼 SQL이 더 나간 호출 (N+1 의심)
+CompletableFuture/Stream 결과는 완료/close 시점에 실행 시간과 건수만 기록한다.
+ */
+@Slf4j
+@Aspect
+public class RepositoryMetricsAspect {
+    private final MeterRegistry registry;
+    private final int nPlusOneMinRows;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+    private final Set<String> nPlusOneReported = ConcurrentHashMap.newKeySet();
+
+    public RepositoryMetricsAspect(MeterRegistry registry, int nPlusOneMinRows) {
+        this.registry = registry;
+        this.nPlusOneMinRows = nPlusOneMinRows;
+    }
+
+    //memberRepository, teamRepository, memberJpaRepository, teamJpaRepository
+    @Around("bean(*Repository)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryName(joinPoint.getTarget());
+        String method = joinPoint.getSignature().getName();
+
+        ThreadQueryStats stats = ThreadQueryStats.current();
+        long statementsBefore = stats.getStatements();
+        long entitiesBefore = stats.getEntities();
+        String previous = stats.enter(repository + "." + method);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            stats.exit(previous);
+            record(repository, method, "ERROR", System.nanoTime() - start,
+                    stats.getStatements() - statementsBefore, stats.getEntities() - entitiesBefore, 0);
+            throw e;
+        }
+        stats.exit(previous);
+
+        //아직 끝나지 않은 비동기 결과 / 소비 전인 스트림은 SQL이 다른 스레드나 나중에 실행되므로
+        //이 스레드의 SQL 수/엔티티 수로는 알 수 없다. 끝날 때 시간과 건수만 기록한다. (N+1 판단 제외)
+        if (result instanceof CompletableFuture<?> future && !future.isDone()) {
+            return future.whenComplete((value, error) -> recordDeferred(
+                    repository, method, error == null ? "SUCCESS" : "ERROR", start, rows(value)));
+        }
+        if (result instanceof Stream<?> stream) {
+            AtomicLong consumed = new AtomicLong();
+            return stream.peek(element -> consumed.incrementAndGet())
+                    .onClose(() -> recordDeferred(repository, method, "SUCCESS", start, consumed.get()));
+        }
+        //이미 끝난 비동기 결과(@Async가 이 메서드 바깥에서 실행한 경우)는 값으로 센다.
+        Object value = result instanceof CompletableFuture<?> future ? future.getNow(null) : result;
+        record(repository, method, "SUCCESS", System.nanoTime() - start,
+                stats.getStatements() - statementsBefore, stats.getEntities() - entitiesBefore, rows(value));
+        return result;
+    }
+
+    private void record(String repository, String method, String outcome, long elapsed,
+                        long statements, long entities, long rows) {
+        Meters m = meters(repository, method, outcome);
+        m.timer.record(elapsed, TimeUnit.NANOSECONDS);
+        m.statements.record(statements);
+        m.rows.record(rows);
+        m.entities.record(entities);
+
+        //1(본 쿼리) + 결과 1건당 1개 이상 -> 결과 건수에 비례해서 SQL이 늘어나는 패턴
+        if (rows >= nPlusOneMinRows && statements > rows) {
+            m.nPlusOne.increment();
+            if (nPlusOneReported.add(repository + "." + method)) {
+                log.warn("N+1 의심: {}.{} - {}건 조회에 SQL {}번 실행", repository, method, rows, statements);
+            }
+        }
+    }
+
+    private void recordDeferred(String repository, String method, String outcome, long start, long rows) {
+        Meters m = meters(repository, method, outcome);
+        m.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        m.rows.record(rows);
+    }
+
+    private Meters meters(String repository, String method, String outcome) {
+        return meters.computeIfAbsent(repository + "." + method + ":" + outcome,
+                key -> new Meters(repository, method, outcome));
+    }
+
+    private long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Window<?> window) {
+            return window.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number || result instanceof Boolean) {
+            return 0; //count, 벌크 수정 결과 등 (조회한 행이 아님)
+        }
+        return 1;
+    }
+
+    //SpringDataJpa 리포지토리는 JDK 프록시이므로 구현한 리포지토리 인터페이스 이름을 쓴다.
+    private String repositoryName(Object target) {
+        return repositoryNames.computeIfAbsent(ClassUtils.getUserClass(target), type -> {
+            if (Proxy.isProxyClass(type)) {
+                for (Class<?> candidate : type.getInterfaces()) {
+                    if (Repository.class.isAssignableFrom(candidate)
+                            && !candidate.getName().startsWith("org.springframework")) {
+                        return candidate.getSimpleName();
+                    }
+                }
+            }
+            return type.getSimpleName();
+        });
+    }
+
+    private class Meters {
+        final Timer timer;
+        final DistributionSummary statements;
+        final DistributionSummary rows;
+        final DistributionSummary entities;
+        final Counter nPlusOne;
+
+        Meters(String repository, String method, String outcome) {
+            timer = Timer.builder("repository.invocations")
+                    .tags("repository", repository, "method", method, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            statements = summary("repository.statements", repository, method, outcome);
+            rows = summary("repository.rows", repository, method, outcome);
+            entities = summary("repository.entities", repository, method, outcome);
+            nPlusOne = Counter.builder("repository.n_plus_one.suspected")
+                    .tags("repository", repository, "method", method)
+                    .register(registry);
+        }
+
+        private DistributionSummary summary(String name, String repository, String method, String outcome) {
+            return DistributionSummary.builder(name)
+                    .tags("repository", repository, "method", method, "outcome", outcome)
+                    .register(registry);
+        }
+    }
+}
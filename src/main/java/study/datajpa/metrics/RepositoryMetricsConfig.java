@@ -0,0 +1,44 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+리포지토리 지표 설정 (datajpa.metrics.repository.enabled=false로 끌 수 있다)
+p6spy, org.hibernate.SQL 로그와 달리 SQL 문자열을 남기지 않고 카운터만 올리므로 운영에서도 켜둘 수 있다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datajpa.metrics.repository", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RepositoryMetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new CountingStatementInspector());
+    }
+
+    @Bean
+    public EntityLoadCounter entityLoadCounter(EntityManagerFactory emf) {
+        EntityLoadCounter counter = new EntityLoadCounter();
+        emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, counter);
+        return counter;
+    }
+
+    @Bean
+    public RepositoryMetricsAspect repositoryMetricsAspect(
+            MeterRegistry registry,
+            @Value("${datajpa.metrics.repository.n-plus-one-min-rows:5}") int nPlusOneMinRows) {
+        return new RepositoryMetricsAspect(registry, nPlusOneMinRows);
+    }
+}
@@ -0,0 +1,95 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+느린 쿼리 로그 (datasource-proxy 리스너)
+실행 시간이 threshold 이상인 SQL만 호출한 리포지토리 메서드와 함께 남기고
+datasource.slow.queries 카운터를 올린다.
+바인딩 파라미터는 log-parameters=true(dev 프로필)일 때만 남긴다. (개인정보)
+p6spy처럼 모든 SQL 문자열을 만들어 쓰지 않고, 빠른 쿼리는 시간 비교 한 번으로 끝나므로 운영에서도 켜둘 수 있다.
+리포지토리 메서드는 RepositoryMetricsAspect가 기록한 값이라 리포지토리 밖에서 실행된 SQL은 none으로 남는다.
+(TransactionTemplate 커밋 시점의 flush, JdbcTemplate 직접 실행 등. 리포지토리 메서드의 트랜잭션 커밋은 메서드 안에 포함된다)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "datajpa.slow-query", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryLogger implements QueryExecutionListener {
+    private static final int MAX_BATCH_ENTRIES = 10; //batch는 앞쪽 일부 파라미터만 남긴다.
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final MeterRegistry registry;
+    private final long thresholdMillis;
+    private final boolean logParameters;
+
+    public SlowQueryLogger(MeterRegistry registry,
+                           @Value("${datajpa.slow-query.threshold:500ms}") Duration threshold,
+                           @Value("${datajpa.slow-query.log-parameters:false}") boolean logParameters) {
+        this.registry = registry;
+        this.thresholdMillis = threshold.toMillis();
+        this.logParameters = logParameters;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        if (elapsed < thresholdMillis) {
+            return;
+        }
+        //SQL을 실행한 스레드에서 호출되므로 RepositoryMetricsAspect가 기록해둔 메서드를 그대로 쓸 수 있다.
+        String repositoryMethod = ThreadQueryStats.current().getRepositoryMethod();
+        String method = repositoryMethod == null ? "none" : repositoryMethod;
+        registry.counter("datasource.slow.queries", "method", method).increment();
+        for (QueryInfo query : queryInfoList) {
+            if (logParameters) {
+                log.warn("slow query {}ms [{}]{} {} params={}", elapsed, method,
+                        execInfo.isBatch() ? " batch=" + execInfo.getBatchSize() : "",
+                        query.getQuery(), parameters(query));
+            } else {
+                log.warn("slow query {}ms [{}]{} {}", elapsed, method,
+                        execInfo.isBatch() ? " batch=" + execInfo.getBatchSize() : "",
+                        query.getQuery());
+            }
+        }
+    }
+
+    private String parameters(QueryInfo query) {
+        List<List<ParameterSetOperation>> parametersList = query.getParametersList();
+        String params = parametersList.stream()
+                .limit(MAX_BATCH_ENTRIES)
+                .map(operations -> operations.stream()
+                        .map(this::value)
+                        .collect(Collectors.joining(", ", "(", ")")))
+                .collect(Collectors.joining(", "));
+        return parametersList.size() > MAX_BATCH_ENTRIES
+                ? params + ", ... (" + parametersList.size() + ")"
+                : params;
+    }
+
+    //setXxx(index, value, ...) 호출 인자 -> value. setNull(index, sqlType)이면 null
+    private String value(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        if (ParameterSetOperation.isSetNullParameterOperation(operation) || args.length < 2) {
+            return "null";
+        }
+        String value = args[1] instanceof Object[] array ? Arrays.toString(array) : String.valueOf(args[1]);
+        return value.length() > MAX_VALUE_LENGTH ? value.substring(0, MAX_VALUE_LENGTH) + "..." : value;
+    }
+}
@@ -0,0 +1,52 @@
+package study.datajpa.metrics;
+
+/*
+스레드별 SQL 실행 수 / 엔티티 로딩 수와 현재 실행 중인 리포지토리 메서드
+리포지토리 메서드 호출 전후 값의 차이로 메서드별 지표를 계산한다. (락, 할당 없이 카운터 증가만)
+ */
+public final class ThreadQueryStats {
+    private static final ThreadLocal<ThreadQueryStats> CURRENT = ThreadLocal.withInitial(ThreadQueryStats::new);
+
+    private long statements;
+    private long entities;
+    private String repositoryMethod;
+
+    private ThreadQueryStats() {
+    }
+
+    public static ThreadQueryStats current() {
+        return CURRENT.get();
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getEntities() {
+        return entities;
+    }
+
+    //현재 스레드에서 실행 중인 리포지토리 메서드 (예: MemberRepository.findByAge). 없으면 null
+    public String getRepositoryMethod() {
+        return repositoryMethod;
+    }
+
+    void statementPrepared() {
+        statements++;
+    }
+
+    void entityLoaded() {
+        entities++;
+    }
+
+    //중첩 호출을 위해 이전 값을 돌려준다. 끝나면 exit(이전 값)으로 되돌린다.
+    String enter(String method) {
+        String previous = repositoryMethod;
+        repositoryMethod = method;
+        return previous;
+    }
+
+    void exit(String previous) {
+        repositoryMethod = previous;
+    }
+}
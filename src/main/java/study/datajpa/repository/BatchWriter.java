@@ -0,0 +1,49 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/*
+대량 저장 (saveAllBatched 공통)
+batch_size마다 flush(JDBC batch insert) 후 방금 저장한 엔티티만 detach해서 영속성 컨텍스트가 계속 커지지 않게 한다.
+clear하지 않으므로 호출 전에 영속 상태였던 엔티티는 그대로 영속 상태다. 호출하는 쪽 트랜잭션 안에서 실행해야 한다.
+주의) 저장한 엔티티는 반환 후 준영속 상태다.
+ */
+@Component
+public class BatchWriter {
+    @PersistenceContext
+    private EntityManager em;
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    public long persistAll(Stream<?> entities) {
+        long count = 0;
+        List<Object> batch = new ArrayList<>(batchSize);
+        Iterator<?> iterator = entities.iterator();
+        while (iterator.hasNext()) {
+            Object entity = iterator.next();
+            em.persist(entity);
+            batch.add(entity);
+            count++;
+            if (batch.size() == batchSize) {
+                flushAndDetach(batch);
+            }
+        }
+        flushAndDetach(batch);
+        return count;
+    }
+
+    //flush 전에 detach하면 insert가 취소되므로 반드시 flush 후에
+    private void flushAndDetach(List<Object> batch) {
+        em.flush();
+        batch.forEach(em::detach);
+        batch.clear();
+    }
+}
@@ -0,0 +1,80 @@
+package study.datajpa.repository;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/*
+member_id 구간별로 나눈 벌크 나이 증가 작업의 진행 상태
+구간 하나가 트랜잭션 하나. 끝난 구간을 기억하므로 실패 후 같은 작업으로 다시 실행하면 남은 구간만 처리한다.
+(age + 1은 멱등하지 않으므로 끝난 구간을 다시 실행하면 안 된다.)
+ */
+@Getter
+public class BulkAgeUpdateJob {
+    private final int age;
+    private final long minId;
+    private final long maxId;
+    private final int chunkSize;
+    //진행 상태는 complete/fail로만 바꾸고 밖에는 읽기 전용으로 보여준다.
+    @Getter(AccessLevel.NONE)
+    private final NavigableSet<Long> completedChunks = new ConcurrentSkipListSet<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<Long, Throwable> failedChunks = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong updatedRows = new AtomicLong();
+
+    BulkAgeUpdateJob(int age, long minId, long maxId, int chunkSize) {
+        this.age = age;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.chunkSize = chunkSize;
+    }
+
+    //각 구간의 시작 id. 구간은 [start, start + chunkSize)
+    List<Long> chunkStarts() {
+        if (maxId < minId) {
+            return List.of();
+        }
+        return LongStream.iterate(minId, start -> start <= maxId, start -> start + chunkSize)
+                .boxed()
+                .toList();
+    }
+
+    public NavigableSet<Long> getCompletedChunks() {
+        return Collections.unmodifiableNavigableSet(completedChunks);
+    }
+
+    public Map<Long, Throwable> getFailedChunks() {
+        return Collections.unmodifiableMap(failedChunks);
+    }
+
+    public long getUpdatedRows() {
+        return updatedRows.get();
+    }
+
+    public int getTotalChunks() {
+        return chunkStarts().size();
+    }
+
+    public boolean isCompleted() {
+        return completedChunks.size() == getTotalChunks();
+    }
+
+    void complete(long chunkStart, int rows) {
+        completedChunks.add(chunkStart);
+        failedChunks.remove(chunkStart);
+        updatedRows.addAndGet(rows);
+    }
+
+    void fail(long chunkStart, Throwable cause) {
+        failedChunks.put(chunkStart, cause);
+    }
+}
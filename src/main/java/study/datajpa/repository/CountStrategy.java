@@ -0,0 +1,13 @@
+package study.datajpa.repository;
+
+/*
+페이징 조회 시 total count를 어떻게 구할지
+ */
+public enum CountStrategy {
+    //매 요청마다 count 쿼리 실행
+    EXACT,
+    //조건값(age)별로 TTL동안 캐시. 회원 저장/삭제/벌크 수정 시 무효화
+    CACHED,
+    //첫 페이지가 다 차지 않았거나 마지막 페이지면 count 쿼리 생략 (content 크기로 계산)
+    SKIP_WHEN_SHORT
+}
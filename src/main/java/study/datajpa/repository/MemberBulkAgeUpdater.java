@@ -0,0 +1,130 @@
+package study.datajpa.repository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.config.DataSourcePoolConfig;
+import study.datajpa.entity.Member;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/*
+대용량 회원 테이블용 벌크 나이 증가
+bulkAgePlus는 update 한 번으로 대상 행 전체를 한 트랜잭션에서 잠근다.
+여기서는 member_id 구간별로 짧은 트랜잭션을 나눠서 제한된 수의 스레드(bulk-update-*)로 병렬 실행한다.
+스레드 수는 parallelism과 커넥션 풀의 절반 중 작은 값
+ */
+@Slf4j
+@Component
+public class MemberBulkAgeUpdater {
+    @PersistenceContext
+    private EntityManager em;
+    private final TransactionTemplate tx;
+    private final MemberCountCache countCache;
+    private final TableVersions tableVersions;
+    private final int chunkSize;
+    private final ThreadPoolTaskExecutor workers;
+
+    public MemberBulkAgeUpdater(PlatformTransactionManager transactionManager,
+                                MemberCountCache countCache,
+                                TableVersions tableVersions,
+                                Environment environment,
+                                @Value("${datajpa.bulk-update.chunk-size:10000}") int chunkSize,
+                                @Value("${datajpa.bulk-update.parallelism:4}") int parallelism) {
+        this.tx = new TransactionTemplate(transactionManager);
+        this.countCache = countCache;
+        this.tableVersions = tableVersions;
+        this.chunkSize = chunkSize;
+        //실행할 때마다 만들지 않고 하나를 같이 쓴다. 동시에 여러 작업을 실행해도 스레드(= 커넥션)는 이 수를 넘지 않는다.
+        //빈으로 등록하면 부트의 applicationTaskExecutor 자동 설정이 빠지므로 내부에서만 만든다. (ParallelQueries와 같은 이유)
+        int threads = Math.max(1, Math.min(parallelism, DataSourcePoolConfig.workerLimit(environment)));
+        this.workers = new ThreadPoolTaskExecutor();
+        this.workers.setCorePoolSize(threads);
+        this.workers.setMaxPoolSize(threads);
+        this.workers.setThreadNamePrefix("bulk-update-");
+        this.workers.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    //작업 준비: 현재 member_id 범위를 구간으로 나눈다. (이후에 추가되는 회원은 대상이 아니다)
+    public BulkAgeUpdateJob prepare(int age) {
+        Object[] range = tx.execute(status -> (Object[]) em.createQuery(
+                        "select min(m.id), max(m.id) from Member m")
+                .getSingleResult());
+        long minId = range[0] == null ? 0 : (Long) range[0];
+        long maxId = range[1] == null ? -1 : (Long) range[1];
+        return new BulkAgeUpdateJob(age, minId, maxId, chunkSize);
+    }
+
+    public BulkAgeUpdateJob run(int age) {
+        return run(prepare(age), job -> {});
+    }
+
+    //아직 끝나지 않은 구간만 실행한다. 구간이 끝날 때마다 progress가 호출된다.
+    //구간이나 progress가 실패하면 아직 시작하지 않은 구간은 실행하지 않고 예외를 던진다.
+    //같은 job으로 다시 호출하면 남은 구간부터 이어서 실행한다.
+    public BulkAgeUpdateJob run(BulkAgeUpdateJob job, Consumer<BulkAgeUpdateJob> progress) {
+        List<Long> remaining = job.chunkStarts().stream()
+                .filter(start -> !job.getCompletedChunks().contains(start))
+                .toList();
+
+        AtomicBoolean stopped = new AtomicBoolean();
+        try {
+            CompletableFuture.allOf(remaining.stream()
+                    .map(start -> CompletableFuture.runAsync(() -> runChunk(job, start, progress, stopped), workers))
+                    .toArray(CompletableFuture[]::new))
+                    .join();
+        } finally {
+            countCache.invalidate();
+            tableVersions.touch(Member.class);
+        }
+
+        if (!job.getFailedChunks().isEmpty()) {
+            throw new IllegalStateException(job.getFailedChunks().size() + "개 구간 실패. 같은 job으로 다시 실행하면 이어서 처리합니다.",
+                    job.getFailedChunks().values().iterator().next());
+        }
+        return job;
+    }
+
+    private void runChunk(BulkAgeUpdateJob job, long start, Consumer<BulkAgeUpdateJob> progress, AtomicBoolean stopped) {
+        if (stopped.get()) {
+            return;
+        }
+        try {
+            Integer rows = tx.execute(status -> em.createQuery(
+                            "update Member m set m.age = m.age + 1, m.version = m.version + 1" +
+                                    " where m.age >= :age and m.id >= :from and m.id < :to")
+                    .setParameter("age", job.getAge())
+                    .setParameter("from", start)
+                    .setParameter("to", start + job.getChunkSize())
+                    .executeUpdate());
+            job.complete(start, rows);
+        } catch (RuntimeException e) {
+            log.warn("bulk age update chunk [{}, {}) failed", start, start + job.getChunkSize(), e);
+            job.fail(start, e);
+            stopped.set(true);
+            return;
+        }
+        try {
+            progress.accept(job);
+        } catch (RuntimeException e) {
+            //구간은 이미 커밋되어 끝난 것으로 남는다. (다시 실행하지 않음)
+            stopped.set(true);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+//벌크성 수정/삭제 쿼리는 엔티티 리스너를 거치지 않으므로 직접 캐시를 비우고 테이블 버전을 올린다.
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MemberBulkUpdateAspect {
+    private final MemberCountCache countCache;
+    private final TableVersions tableVersions;
+    private final TeamMemberCounts teamMemberCounts;
+
+    //MemberRepository(+Custom), MemberJpaRepository의 bulk로 시작하는 메서드
+    @AfterReturning("execution(* study.datajpa.repository.Member*.bulk*(..))")
+    public void afterBulkUpdate() {
+        countCache.invalidate();
+        tableVersions.touch(Member.class);
+    }
+
+    //deleteAllInBatch, deleteAllByIdInBatch 등. 삭제된 회원의 팀 회원 수는 커밋 후 다시 센다.
+    //(bulk* 나이 수정은 team_id를 바꾸지 않으므로 재계산하지 않는다)
+    @AfterReturning("bean(memberRepository) && execution(* *InBatch(..))")
+    public void afterBatchDelete() {
+        afterBulkUpdate();
+        teamMemberCounts.recountAfterCommit();
+    }
+}
@@ -0,0 +1,67 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/*
+age별 회원 수 캐시
+목록 API가 페이지마다 count 쿼리를 날리지 않도록 TTL동안 값을 재사용한다.
+ */
+@Component
+public class MemberCountCache {
+    private final Duration ttl;
+    private final Map<Integer, CachedCount> counts = new ConcurrentHashMap<>();
+    //무효화 세대. 조회 도중 무효화되면 오래된 값을 다시 넣지 않는다.
+    private final AtomicLong generation = new AtomicLong();
+
+    public MemberCountCache(@Value("${datajpa.count-cache.ttl:30s}") Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public long get(int age, LongSupplier counter) {
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(age);
+        if (cached != null && now - cached.loadedAt() < ttl.toNanos()) {
+            return cached.count();
+        }
+        long gen = generation.get();
+        long count = counter.getAsLong();
+        if (generation.get() == gen) {
+            counts.put(age, new CachedCount(count, now));
+        }
+        return count;
+    }
+
+    public void invalidate() {
+        evict();
+        //트랜잭션이 끝나기 전에 다시 캐시된 값(다른 트랜잭션의 이전 값, 롤백될 값)이 남지 않도록
+        //커밋/롤백 후에 한번 더 비운다. (대량 저장이라도 트랜잭션당 콜백 하나)
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MemberCountCache.this);
+                    evict();
+                }
+            });
+        }
+    }
+
+    private void evict() {
+        generation.incrementAndGet();
+        counts.clear();
+    }
+
+    private record CachedCount(long count, long loadedAt) {
+    }
+}
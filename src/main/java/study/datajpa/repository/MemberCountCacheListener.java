@@ -0,0 +1,22 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+//회원이 저장/수정/삭제되면 count 캐시를 비운다. (스프링 빈으로 생성되는 엔티티 리스너)
+@Component
+@RequiredArgsConstructor
+public class MemberCountCacheListener {
+    private final MemberCountCache countCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Member member) {
+        countCache.invalidate();
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+키셋(커서) 페이징의 연속 토큰
+정렬 기준(username desc, member_id desc)의 마지막 값을 클라이언트가 내용을 몰라도 되는 문자열로 감싼다.
+ */
+public final class MemberCursor {
+
+    private MemberCursor() {
+    }
+
+    //마지막으로 읽은 회원의 위치 -> 토큰
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset) || keyset.isInitial()) {
+            return null;
+        }
+        Map<String, ?> keys = keyset.getKeys();
+        String raw = keys.get("id") + ":" + keys.get("username");
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //토큰 -> 다음 조회 위치. 토큰이 없으면 첫 페이지
+    public static KeysetScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor, e);
+        }
+        int idx = raw.indexOf(':');
+        if (idx < 1) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor);
+        }
+        return of(raw.substring(idx + 1), Long.valueOf(raw.substring(0, idx)));
+    }
+
+    static KeysetScrollPosition of(String username, Long id) {
+        //키 순서는 정렬 순서와 같아야 한다.
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("username", username);
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -2,21 +2,36 @@ package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Member;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public class MemberJpaRepository {
     @PersistenceContext
     private EntityManager em;
+    @Autowired
+    private MemberCountCache countCache;
+    @Autowired
+    private BatchWriter batchWriter;
 
     public Member save(Member member) {
         em.persist(member);
         return member;
     }
+
+    //대량 저장 (BatchWriter: batch_size마다 flush 후 저장한 회원만 detach)
+    public long saveAllBatched(Stream<Member> members){
+        return batchWriter.persistAll(members);
+    }
     public Member find(Long id){
         return em.find(Member.class, id);
     }
@@ -31,6 +46,14 @@ public class MemberJpaRepository {
                 .getResultList();
     }
 
+    //읽기 전용 조회 - 스냅샷을 만들지 않으므로 대량 조회 시 메모리가 절반 가까이 줄고 flush 때 변경 감지도 생략
+    public List<Member> findAllReadOnly(){
+        return em.createQuery(
+                        "select m from Member m", Member.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
     public long count(){
         return em.createQuery(
                 "select count(m) from Member m", Long.class)
@@ -58,33 +81,59 @@ public class MemberJpaRepository {
                 .getResultList();
     }
 
-    //순수 JPQL로 페이징하기
+    //순수 JPQL로 페이징하기 (Member.pageByAge)
     public List<Member> findByPage(int age, int offset, int limit){
-        String query = "select m from Member m " +
-                " where m.age = :age" +
-                " order by m.username desc";
-        return em.createQuery(query, Member.class)
+        return em.createNamedQuery("Member.pageByAge", Member.class)
                     .setParameter("age", age)
                     .setFirstResult(offset)
                     .setMaxResults(limit)
                     .getResultList();
     }
 
-    //페이징에는 항상 total count가 필요함
-    public long totalCount(int age){
-        String query = "select count(m) from Member m " +
-                " where m.age = :age";
+    //첫 페이지와 다음 페이지 두 가지 문자열만 쓰므로 쿼리 플랜 캐시에서 재사용된다. (QueryPlanWarmer가 미리 파싱)
+    static final String KEYSET_FIRST = "select m from Member m" +
+            " where m.age = :age" +
+            " order by m.username desc, m.id desc";
+    static final String KEYSET_NEXT = "select m from Member m" +
+            " where m.age = :age" +
+            " and (m.username < :username or (m.username = :username and m.id < :id))" +
+            " order by m.username desc, m.id desc";
 
-        return em.createQuery(query, Long.class)
+    //순수 JPQL로 키셋(커서) 페이징하기
+    //offset 대신 마지막으로 읽은 (username, id) 이후의 행만 조회한다.
+    public Window<Member> findByKeyset(int age, KeysetScrollPosition position, int limit){
+        boolean first = position.isInitial();
+        TypedQuery<Member> typedQuery = em.createQuery(first ? KEYSET_FIRST : KEYSET_NEXT, Member.class)
+                .setParameter("age", age)
+                .setMaxResults(limit + 1); //다음 페이지 존재 여부 확인용으로 하나 더
+        if (!first) {
+            typedQuery.setParameter("username", position.getKeys().get("username"))
+                    .setParameter("id", position.getKeys().get("id"));
+        }
+        List<Member> result = typedQuery.getResultList();
+
+        boolean hasNext = result.size() > limit;
+        List<Member> content = hasNext ? result.subList(0, limit) : result;
+        return Window.from(content,
+                i -> MemberCursor.of(content.get(i).getUsername(), content.get(i).getId()),
+                hasNext);
+    }
+
+    //페이징에는 항상 total count가 필요함 (Member.totalCountByAge)
+    public long totalCount(int age){
+        return em.createNamedQuery("Member.totalCountByAge", Long.class)
                 .setParameter("age", age)
                 .getSingleResult();
     }
 
-    //모든 회원 나이를 한번에 변경하기
+    //목록 API용 total count. TTL동안 캐시된 값을 쓰고 회원이 변경되면 다시 센다.
+    public long cachedTotalCount(int age){
+        return countCache.get(age, () -> totalCount(age));
+    }
+
+    //모든 회원 나이를 한번에 변경하기 (Member.bulkAgePlusFromAge)
      public int bulkAgePlus(int age){
-        String query = "update Member m set m.age = m.age + 1 " +
-                " where m.age >= :age";
-        return em.createQuery(query)
+        return em.createNamedQuery("Member.bulkAgePlusFromAge")
                 .setParameter("age",age)
                 .executeUpdate(); //update, delete는 executeUpdate 실행
     }
@@ -1,26 +1,40 @@
 package study.datajpa.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.support.WindowIterator;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Repository;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberNameAge;
+import study.datajpa.dto.MemberSummary;
 import study.datajpa.entity.Member;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /*
 SpringDataJpa 사용하기
  */
 
 @Repository //어노테이션 생략 가능
-public interface MemberRepository extends JpaRepository<Member, Long> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
 
     //쿼리 자동생성
     //단점 : 조건이 많아지면 메서드 명이 너무 복잡해짐
@@ -57,10 +71,50 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
             " join m.team t")
     List<MemberDto> findMemberDto();
 
+    //Projections - 필요한 컬럼만 조회하고 엔티티(영속성 컨텍스트)를 거치지 않는다.
+    //1. 인터페이스 기반: alias를 getter 이름에 맞춘다. (new 연산자 불필요)
+    @Query("select m.id as id, m.username as username, t.name as teamName" +
+            " from Member m left join m.team t" +
+            " where m.age = :age")
+    List<MemberSummary> findSummaryByAge(@Param("age") int age);
+    @Query("select m.id as id, m.username as username, t.name as teamName" +
+            " from Member m left join m.team t" +
+            " where m.age = :age")
+    Slice<MemberSummary> findSummarySliceByAge(@Param("age") int age, Pageable pageable);
+    //REST API용 (회원 목록, 단건, 팀별 회원 목록) - 팀 이름까지 한 번의 쿼리로, 엔티티 없이
+    @Query("select m.id as id, m.username as username, t.name as teamName" +
+            " from Member m left join m.team t")
+    Slice<MemberSummary> findSummarySlice(Pageable pageable);
+    @Query("select m.id as id, m.username as username, t.name as teamName" +
+            " from Member m left join m.team t" +
+            " where m.id = :id")
+    Optional<MemberSummary> findSummaryById(@Param("id") Long id);
+    @Query("select m.id as id, m.username as username, t.name as teamName" +
+            " from Member m join m.team t" +
+            " where t.id = :teamId")
+    Slice<MemberSummary> findSummarySliceByTeamId(@Param("teamId") Long teamId, Pageable pageable);
+    //2. record 기반: 쿼리 메서드 이름으로 만든 쿼리는 record 필드(username, age)만 select
+    List<MemberNameAge> findNameAgeByAge(int age);
+    //3. 동적 projection: 호출할 때 반환 타입을 고른다. (MemberSummary가 아닌 엔티티 속성만 있는 타입)
+    <T> List<T> findProjectionByUsername(String username, Class<T> type);
+
+    //비동기 조회 - applicationTaskExecutor 스레드에서 별도 트랜잭션으로 실행하고 바로 CompletableFuture를 반환
+    //동시에 실행되는 쿼리 수는 spring.task.execution 설정(커넥션 풀 크기)으로 제한된다.
+    //주의) 반환된 엔티티는 이미 트랜잭션이 끝난 준영속 상태 -> 지연 로딩 불가. projection을 권장
+    @Async
+    CompletableFuture<List<MemberNameAge>> findNameAgeAsyncByAge(int age);
+    @Async
+    CompletableFuture<List<Member>> findAsyncByUsername(String username);
+    @Async
+    CompletableFuture<Long> countAsyncByAge(int age);
+
     //파라미터 바인딩 - IN절의 활용
     @Query("select m from Member m " +
             " where m.username in :names") //IN절이니까 = 대신 IN키워드
     List<Member> findByNames(@Param("names") List<String> names);
+    //이름 목록을 배열 파라미터 하나로 바인딩 - 목록 크기와 상관없이 SQL이 하나이고 파라미터 수 제한도 없다. (H2, PostgreSQL)
+    @Query(value = "select * from member where username = any(:names)", nativeQuery = true)
+    List<Member> findByNameArray(@Param("names") String[] names);
 
     //유연한 반환타입 - 1. List 또는 컬렉션
     List<Member> findListByUsername(String username);
@@ -71,18 +125,43 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
 
     //스프링 Data JPA의 페이징 추상화
     //검색 조건과 Pageable인터페이스만 넘기면된다. (PageRequest는 Pageable의 구현체)
-    @Query(countQuery = "select count(m) from Member m")
-    Page<Member> findByAge(int age, Pageable pageable);
+    //count 쿼리도 같은 조건(age)으로 세야 totalElements/totalPages가 맞다. (조인이 필요 없는 count라 따로 지정)
+    @Query(countQuery = "select count(m) from Member m where m.age = :age")
+    Page<Member> findByAge(@Param("age") int age, Pageable pageable);
     //참고 엔티티는 절대 외부로 노출해서는 안된다. API에서 엔티티를 그대로 반환해서는 안됨!!!
     //Page<Member>도 Page<MemberDto>로 변환해야함
     Slice<Member> findSliceByAge(int age, Pageable pageable);
 
+    //키셋(커서) 페이징 - offset으로 앞 페이지를 읽고 버리지 않으므로 뒤쪽 페이지도 속도가 일정하다.
+    //정렬은 username desc, member_id desc 고정. 다음 위치는 MemberCursor로 토큰화해서 주고받는다.
+    Window<Member> findByAgeOrderByUsernameDescIdDesc(int age, ScrollPosition position, Limit limit);
+
+    //팀 회원을 member_id 순서로 chunkSize명씩 읽는다. (Team.members를 통째로 초기화하지 않고 큰 팀 순회)
+    //다음 묶음은 마지막 member_id 이후부터 조회. 트랜잭션 안에서 순회하면 읽은 회원이 영속성 컨텍스트에 쌓이므로 필요하면 중간에 clear
+    Window<Member> findByTeamIdOrderByIdAsc(Long teamId, ScrollPosition position, Limit limit);
+
+    default Iterator<Member> iterateByTeamId(Long teamId, int chunkSize) {
+        return WindowIterator.of(position -> findByTeamIdOrderByIdAsc(teamId, position, Limit.of(chunkSize)))
+                .startingAt(ScrollPosition.keyset());
+    }
+
     //모든 회원 나이를 한번에 변경하기
     //@Modifying이 있어야 executeUpdate()를 실행함. 없으면 resultList나 getSingleResult같은것 호출함
     @Modifying(clearAutomatically = true)
 //    @Modifying
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    @Query("update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age")
     public int bulkAgePlus(@Param("age") int age);
+    //회원 한 명의 나이 증가를 update 한 번으로 (조회 없이 DB에서 계산하므로 동시에 실행해도 충돌/재시도 없음)
+    @Modifying(clearAutomatically = true)
+    @Query("update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.id = :id")
+    int bulkAgePlusById(@Param("id") Long id);
+
+    //비관적 락: select ... for update 로 조회해서 트랜잭션이 끝날 때까지 다른 트랜잭션의 수정/잠금을 막는다.
+    //충돌이 잦은 행에서 재시도 대신 대기. 대기 시간이 lock.timeout(ms)을 넘으면 예외
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("select m from Member m where m.id = :id")
+    Optional<Member> findByIdForUpdate(@Param("id") Long id);
 
     @Query("select m from Member m left join fetch m.team t")
     List<Member> findMemberFetchJoin();
@@ -102,4 +181,19 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
     @EntityGraph("Member.all") //엔티티에 정의한 NamedEntityGraph가 실행된다.
     List<Member> findEntityGraphByUsername(@Param("username") String username);
 
+    //읽기 전용 쿼리 힌트
+    //조회한 엔티티의 스냅샷을 만들지 않고 flush 때 변경 감지도 하지 않는다. (메모리 절약, 수정해도 DB에 반영 안 됨)
+    //트랜잭션 전체를 읽기 전용으로 하려면 @Transactional(readOnly = true)
+    // -> 스프링이 세션을 읽기 전용 + FlushMode.MANUAL로 설정해서 그 안의 모든 조회에 같은 효과
+    @QueryHints(value = @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Member> findReadOnlyByUsername(String username);
+
+    @QueryHints(value = @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select m from Member m where m.username in :names")
+    List<Member> findReadOnlyByNames(@Param("names") List<String> names);
+
+    @QueryHints(value = @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select m from Member m left join fetch m.team t")
+    List<Member> findMemberFetchJoinReadOnly();
+
 }
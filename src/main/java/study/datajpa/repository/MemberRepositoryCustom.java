@@ -0,0 +1,37 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/*
+사용자 정의 리포지토리
+SpringDataJpa가 만들어주는 기능 외에 직접 구현이 필요한 메서드를 정의한다.
+구현 클래스 이름은 리포지토리 인터페이스 이름 + Impl (MemberRepositoryImpl)
+ */
+public interface MemberRepositoryCustom {
+
+    //total count를 구하는 방식을 고를 수 있는 페이징
+    Page<Member> findByAge(int age, Pageable pageable, CountStrategy countStrategy);
+
+    //대량 저장. batch_size마다 flush 후 저장한 회원만 detach (반환 후 저장한 회원은 준영속 상태)
+    long saveAllBatched(Stream<Member> members);
+
+    //이름 목록으로 조회. datajpa.in-clause.chunk-size개씩 나눠서 in절로 조회하고 요청한 이름 순서로 합친다.
+    //트랜잭션 밖에서 호출하면 나눈 조회를 동시에 실행한다. (ParallelQueries, 반환된 엔티티는 준영속)
+    List<Member> findByNamesInChunks(Collection<String> names);
+
+    //전체 회원을 DTO 스트림으로 조회 (forward-only 커서, fetchSize만큼씩 DB에서 가져온다)
+    //엔티티를 만들지 않으므로 영속성 컨텍스트에 쌓이지 않는다. 트랜잭션 안에서 소비하고 반드시 close 해야 한다.
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+    //벌크 나이 증가. bulkAgePlus와 달리 영속성 컨텍스트를 비우지 않고
+    //이미 영속 상태인 대상 회원은 다시 읽어서(refresh) DB와 같게 맞추고, 읽기 전용으로 읽은 대상 회원은 준영속으로 만든다.
+    //대상 id를 한 번 더 조회하므로 대상이 아주 많으면 bulkAgePlus(clear)가 낫다.
+    int bulkAgePlusKeepingContext(int age);
+}
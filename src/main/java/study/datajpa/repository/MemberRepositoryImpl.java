@@ -0,0 +1,145 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class MemberRepositoryImpl implements MemberRepositoryCustom {
+    private final EntityManager em;
+    private final MemberCountCache countCache;
+    private final ParallelQueries parallelQueries;
+    private final BatchWriter batchWriter;
+    @Value("${datajpa.in-clause.chunk-size:1000}")
+    private int inClauseChunkSize;
+
+    //동적으로 만드는 JPQL (QueryPlanWarmer가 미리 파싱)
+    static final String BY_AGE = "select m from Member m where m.age = :age";
+    static final String COUNT_BY_AGE = "select count(m) from Member m where m.age = :age";
+    static final String BY_NAMES_IN = "select m from Member m where m.username in :names";
+
+    @Override
+    public Page<Member> findByAge(int age, Pageable pageable, CountStrategy countStrategy) {
+        String query = QueryUtils.applySorting(BY_AGE, pageable.getSort(), "m");
+        List<Member> content = em.createQuery(query, Member.class)
+                .setParameter("age", age)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        LongSupplier exactCount = () -> em.createQuery(COUNT_BY_AGE, Long.class)
+                .setParameter("age", age)
+                .getSingleResult();
+
+        return switch (countStrategy) {
+            case EXACT -> new PageImpl<>(content, pageable, exactCount.getAsLong());
+            case CACHED -> PageableExecutionUtils.getPage(content, pageable,
+                    () -> countCache.get(age, exactCount));
+            case SKIP_WHEN_SHORT -> PageableExecutionUtils.getPage(content, pageable, exactCount);
+        };
+    }
+
+    @Override
+    @Transactional
+    public long saveAllBatched(Stream<Member> members) {
+        return batchWriter.persistAll(members);
+    }
+
+    @Override
+    public List<Member> findByNamesInChunks(Collection<String> names) {
+        List<String> distinctNames = List.copyOf(new LinkedHashSet<>(names));
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctNames.size(); from += inClauseChunkSize) {
+            chunks.add(distinctNames.subList(from, Math.min(from + inClauseChunkSize, distinctNames.size())));
+        }
+
+        List<Member> result = new ArrayList<>();
+        if (chunks.size() <= 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            //트랜잭션 안에서는 같은 영속성 컨텍스트로 순서대로 조회 (영속 상태 유지, 커밋 전 변경도 보임)
+            chunks.forEach(chunk -> result.addAll(findByNamesIn(chunk)));
+        } else {
+            List<CompletableFuture<List<Member>>> queries = chunks.stream()
+                    .map(chunk -> parallelQueries.submit(() -> findByNamesIn(chunk)))
+                    .toList();
+            parallelQueries.awaitAll(queries.toArray(CompletableFuture[]::new));
+            queries.forEach(query -> result.addAll(query.join()));
+        }
+        return orderByNames(distinctNames, result);
+    }
+
+    private List<Member> findByNamesIn(List<String> names) {
+        return em.createQuery(BY_NAMES_IN, Member.class)
+                .setParameter("names", names)
+                .getResultList();
+    }
+
+    //in절 결과 순서는 보장되지 않으므로 요청한 이름 순서로 정렬 (같은 이름의 회원은 연속으로)
+    //DB가 요청과 다른 문자열로 돌려준 이름(대소문자 무시 collation, CHAR 뒤 공백 등)은 뒤에 붙인다.
+    private List<Member> orderByNames(List<String> names, List<Member> members) {
+        Map<String, List<Member>> byName = new LinkedHashMap<>();
+        names.forEach(name -> byName.put(name, new ArrayList<>()));
+        members.forEach(member -> byName.computeIfAbsent(member.getUsername(), name -> new ArrayList<>()).add(member));
+        return byName.values().stream().flatMap(List::stream).toList();
+    }
+
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        //팀이 없는 회원도 내보내야 하므로 left join
+        return em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                        " from Member m left join m.team t" +
+                        " order by m.id", MemberDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream(); //하이버네이트는 ScrollableResults(FORWARD_ONLY)로 스트림을 만든다.
+    }
+
+    @Override
+    @Transactional
+    public int bulkAgePlusKeepingContext(int age) {
+        //쓰기 지연된 변경을 먼저 반영해야 영속성 컨텍스트의 값과 DB의 값이 같은 상태에서 시작한다.
+        em.flush();
+        //대상 id를 먼저 읽어둔다. (수정 후에는 age가 바뀌어 같은 조건으로 찾을 수 없다)
+        List<Long> ids = em.createQuery("select m.id from Member m where m.age >= :age", Long.class)
+                .setParameter("age", age)
+                .getResultList();
+        int count = em.createQuery("update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age")
+                .setParameter("age", age)
+                .executeUpdate();
+
+        //영속성 컨텍스트 전체를 clear하는 대신, 벌크 대상 중 이미 영속 상태인 회원만 DB에서 다시 읽는다. (age, version)
+        //getReference는 영속 상태면 그 인스턴스를, 아니면 SQL 없이 프록시를 돌려준다.
+        Session session = em.unwrap(Session.class);
+        for (Long id : ids) {
+            Member member = em.getReference(Member.class, id);
+            if (!Hibernate.isInitialized(member)) {
+                em.detach(member); //컨텍스트에 없던 회원 -> 방금 만든 프록시만 치운다.
+            } else if (session.isReadOnly(member)) {
+                em.detach(member); //읽기 전용으로 읽은 회원은 스냅샷이 없어 갱신하지 않고 내보낸다. (필요하면 다시 조회)
+            } else {
+                em.refresh(member);
+            }
+        }
+        return count;
+    }
+}
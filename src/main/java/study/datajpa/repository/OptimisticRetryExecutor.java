@@ -0,0 +1,77 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+낙관적 락 충돌 시 재시도
+작업(조회 -> 수정)을 매번 새 트랜잭션에서 실행하고, 커밋 시점에 version 충돌이 나면 잠시 쉬었다가 처음부터 다시 한다.
+새 트랜잭션이어야 새 영속성 컨텍스트에서 최신 값을 다시 읽으므로, 호출한 쪽 트랜잭션에 참여하지 않는다. (REQUIRES_NEW)
+작업 안에서 조회한 엔티티로만 수정해야 한다. (밖에서 받은 엔티티는 재시도해도 같은 version으로 다시 충돌)
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+    private final TransactionTemplate tx;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Counter retries;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                   MeterRegistry registry,
+                                   @Value("${datajpa.optimistic-retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${datajpa.optimistic-retry.backoff:5ms}") Duration backoff) {
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.retries = Counter.builder("repository.optimistic.retries")
+                .description("낙관적 락 충돌로 다시 실행한 횟수")
+                .register(registry);
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                retries.increment();
+                log.debug("optimistic lock conflict, retry {}/{}: {}", attempt, maxAttempts - 1, e.getMessage());
+                sleep(attempt);
+            }
+        }
+    }
+
+    public void execute(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    //충돌한 작업들이 같은 순간에 다시 부딪히지 않도록 지수 백오프 + 무작위 지연
+    private void sleep(int attempt) {
+        long maxNanos = backoff.toNanos() << Math.min(attempt - 1, 6);
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(maxNanos + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 인터럽트", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package study.datajpa.repository;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.config.DataSourcePoolConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/*
+서로 독립적인 조회를 동시에 실행하고 결과를 합친다.
+각 조회는 전용 스레드(parallel-query-*)에서 각자의 읽기 전용 트랜잭션(= 각자의 커넥션)으로 실행되므로
+전체 응답 시간이 조회 시간의 합이 아니라 가장 느린 조회 시간에 가까워진다.
+@Async 메서드(applicationTaskExecutor) 안에서 나눠 조회해도 같은 풀의 스레드를 기다리며 막히지 않도록 풀을 따로 둔다.
+스레드 수는 커넥션 풀의 절반. 대기열이 차면 호출한 스레드에서 직접 실행한다.
+주의) 호출한 쪽 트랜잭션의 커밋되지 않은 변경은 보이지 않고, 반환된 엔티티는 준영속 상태다.
+ */
+@Component
+public class ParallelQueries {
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final TransactionTemplate readOnlyTx;
+    private final ThreadPoolTaskExecutor executor;
+
+    public ParallelQueries(PlatformTransactionManager transactionManager, Environment environment) {
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        //빈으로 등록하면 부트의 applicationTaskExecutor 자동 설정이 빠지므로 내부에서만 만든다.
+        int threads = DataSourcePoolConfig.workerLimit(environment);
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setQueueCapacity(QUEUE_CAPACITY);
+        this.executor.setThreadNamePrefix("parallel-query-");
+        this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTx.execute(status -> query.get()), executor);
+    }
+
+    //모두 끝날 때까지 기다린다. 하나라도 실패하면 그 예외를 그대로 던진다.
+    public void awaitAll(CompletableFuture<?>... queries) {
+        try {
+            CompletableFuture.allOf(queries).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Hibernate 쿼리 플랜 캐시 예열
+애플리케이션이 뜬 직후 Spring Data가 모르는 동적 JPQL(MemberRepositoryImpl, MemberJpaRepository에서 직접 만드는 문자열)을
+미리 파싱해 첫 호출에서 파싱 비용이 나가지 않게 하고, 잘못된 쿼리는 요청이 들어오기 전에 로그로 드러나게 한다.
+(@Query와 메서드 이름 쿼리는 Spring Data가 리포지토리 로딩 시점에, Named 쿼리는 SessionFactory 생성 시점에 이미 파싱/검증한다)
+정렬이 붙는 쿼리(findByAge + Pageable sort)는 정렬마다 문자열이 달라지므로 실제로 쓰는 정렬(WARM_UP_SORTS)만 예열한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "datajpa.query-warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryPlanWarmer {
+    //findByAge(age, pageable, countStrategy)를 부르는 쪽이 쓰는 정렬 (정렬 없음, 인덱스 순서인 username desc)
+    static final List<Sort> WARM_UP_SORTS = List.of(
+            Sort.unsorted(),
+            Sort.by(Sort.Direction.DESC, "username"));
+
+    private final EntityManagerFactory emf;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Map<String, Class<?>> queries = queries();
+        long start = System.nanoTime();
+        long slowest = 0;
+        String slowestQuery = null;
+        int failed = 0;
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (Map.Entry<String, Class<?>> entry : queries.entrySet()) {
+                long queryStart = System.nanoTime();
+                try {
+                    em.createQuery(entry.getKey(), entry.getValue());
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.error("query plan warm-up failed: {}", entry.getKey(), e);
+                }
+                long elapsed = System.nanoTime() - queryStart;
+                if (elapsed > slowest) {
+                    slowest = elapsed;
+                    slowestQuery = entry.getKey();
+                }
+            }
+        } finally {
+            em.close();
+        }
+        log.info("query plan warm-up: {} queries ({} failed) in {} ms, slowest {} ms: {}",
+                queries.size(), failed, (System.nanoTime() - start) / 1_000_000,
+                slowest / 1_000_000, slowestQuery);
+    }
+
+    //JPQL -> 결과 타입 (플랜 캐시는 호출하는 쪽과 같은 문자열, 같은 결과 타입으로 만들어야 재사용된다)
+    Map<String, Class<?>> queries() {
+        Map<String, Class<?>> queries = new LinkedHashMap<>();
+        //호출하는 쪽과 같은 방법으로 order by를 붙여야 같은 문자열이 된다.
+        for (Sort sort : WARM_UP_SORTS) {
+            queries.put(QueryUtils.applySorting(MemberRepositoryImpl.BY_AGE, sort, "m"), Member.class);
+        }
+        queries.put(MemberRepositoryImpl.COUNT_BY_AGE, Long.class);
+        queries.put(MemberRepositoryImpl.BY_NAMES_IN, Member.class);
+        queries.put(MemberJpaRepository.KEYSET_FIRST, Member.class);
+        queries.put(MemberJpaRepository.KEYSET_NEXT, Member.class);
+        return queries;
+    }
+}
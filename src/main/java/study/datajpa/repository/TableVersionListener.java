@@ -0,0 +1,21 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+//엔티티가 저장/수정/삭제되면 테이블 버전을 올린다. (HTTP 캐시 무효화)
+@Component
+@RequiredArgsConstructor
+public class TableVersionListener {
+    private final TableVersions tableVersions;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void touch(Object entity) {
+        tableVersions.touch(entity.getClass());
+    }
+}
@@ -0,0 +1,77 @@
+package study.datajpa.repository;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/*
+엔티티(테이블)별 변경 버전
+저장/수정/삭제(엔티티 리스너), 벌크 수정이 있을 때마다 올라간다.
+HTTP 캐시의 ETag/Last-Modified를 여기서 만들어서, 변경이 없으면 DB를 조회하지 않고 304로 응답한다.
+애플리케이션 인스턴스 메모리에만 있으므로 이 애플리케이션을 거치지 않은 DB 변경은 알 수 없다.
+ */
+@Component
+public class TableVersions {
+    //재시작하면 버전이 0부터 다시 시작하므로 ETag에 기동 시각을 넣어 이전 ETag와 겹치지 않게 한다.
+    private final long bootMillis = System.currentTimeMillis();
+    private final String bootId = Long.toString(bootMillis, 36);
+    private final Map<String, Version> versions = new ConcurrentHashMap<>();
+
+    public void touch(Class<?> entityType) {
+        String table = entityType.getSimpleName();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(table);
+            return;
+        }
+        //트랜잭션 중에 한 번, 커밋/롤백 후에 한 번 더 올린다.
+        //(트랜잭션 도중에 이전 데이터로 만든 응답이 새 버전의 ETag로 캐시되지 않도록)
+        @SuppressWarnings("unchecked")
+        Set<String> touched = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (touched == null) {
+            Set<String> tables = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, tables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TableVersions.this);
+                    tables.forEach(TableVersions.this::bump);
+                }
+            });
+            touched = tables;
+        }
+        if (touched.add(table)) {
+            bump(table);
+        }
+    }
+
+    public String etag(Class<?>... entityTypes) {
+        return bootId + "-" + Arrays.stream(entityTypes)
+                .map(type -> Long.toString(version(type).version()))
+                .collect(Collectors.joining("-"));
+    }
+
+    public long lastModified(Class<?>... entityTypes) {
+        return Arrays.stream(entityTypes)
+                .mapToLong(type -> version(type).lastModified())
+                .max()
+                .orElse(bootMillis);
+    }
+
+    private Version version(Class<?> entityType) {
+        return versions.getOrDefault(entityType.getSimpleName(), new Version(0, bootMillis));
+    }
+
+    private void bump(String table) {
+        versions.compute(table, (key, old) -> new Version(old == null ? 1 : old.version() + 1, System.currentTimeMillis()));
+    }
+
+    private record Version(long version, long lastModified) {
+    }
+}
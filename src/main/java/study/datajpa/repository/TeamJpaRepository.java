@@ -2,22 +2,31 @@ package study.datajpa.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Team;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public class TeamJpaRepository {
     @PersistenceContext
     EntityManager em;
+    @Autowired
+    BatchWriter batchWriter;
 
     public Team save(Team team){
         em.persist(team);
         return team;
     }
 
+    //대량 저장 (BatchWriter)
+    public long saveAllBatched(Stream<Team> teams){
+        return batchWriter.persistAll(teams);
+    }
+
     public Optional<Team> findById(Long id){
         Team team = em.find(Team.class, id);
         return Optional.ofNullable(team);
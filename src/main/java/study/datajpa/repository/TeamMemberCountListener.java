@@ -0,0 +1,105 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/*
+회원 저장/팀 변경/삭제를 팀 회원 수 증감으로 기록한다. (실제 반영은 TeamMemberCounts)
+팀을 옮길 때 이전 팀의 회원 수를 줄이려면 DB에 반영되어 있는 팀을 알아야 하므로
+트랜잭션마다 회원 id -> DB의 팀 id를 기록해 둔다. (로딩/저장/수정 직후)
+트랜잭션 밖에서 로딩된 회원(OSIV 조회 후 수정 등)은 이전 팀을 알 수 없으므로 커밋 후 recount로 맞춘다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamMemberCountListener {
+    private static final Long NO_TEAM = -1L; //기록된 팀 없음과 기록 안 됨을 구분
+
+    private final TeamMemberCounts teamMemberCounts;
+
+    @PostLoad
+    public void loaded(Member member) {
+        remember(member);
+    }
+
+    @PostPersist
+    public void persisted(Member member) {
+        remember(member);
+        teamMemberCounts.add(teamId(member), 1);
+    }
+
+    @PostUpdate
+    public void updated(Member member) {
+        Long previous = remember(member);
+        if (previous == null) {
+            teamMemberCounts.recountAfterCommit();
+            return;
+        }
+        Long current = teamId(member);
+        if (!Objects.equals(previous, current)) {
+            teamMemberCounts.add(teamOrNull(previous), -1);
+            teamMemberCounts.add(current, 1);
+        }
+    }
+
+    @PostRemove
+    public void removed(Member member) {
+        //삭제 직전 DB에 있던 팀 기준
+        Map<Long, Long> teams = persistedTeams();
+        Long previous = teams == null ? null : teams.remove(member.getId());
+        if (previous == null) {
+            teamMemberCounts.recountAfterCommit();
+            return;
+        }
+        teamMemberCounts.add(teamOrNull(previous), -1);
+    }
+
+    //현재 팀을 DB에 반영된 팀으로 기록하고 이전 기록을 반환한다. (기록이 없으면 null)
+    private Long remember(Member member) {
+        Map<Long, Long> teams = persistedTeams();
+        if (teams == null) {
+            return null;
+        }
+        Long current = teamId(member);
+        return teams.put(member.getId(), current == null ? NO_TEAM : current);
+    }
+
+    //현재 트랜잭션의 회원 id -> 팀 id. 트랜잭션 밖이면 null
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> persistedTeams() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<Long, Long> teams = (Map<Long, Long>) TransactionSynchronizationManager.getResource(this);
+        if (teams == null) {
+            teams = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, teams);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TeamMemberCountListener.this);
+                }
+            });
+        }
+        return teams;
+    }
+
+    private Long teamOrNull(Long teamId) {
+        return NO_TEAM.equals(teamId) ? null : teamId;
+    }
+
+    //프록시의 getId()는 프록시를 초기화하지 않는다.
+    private Long teamId(Member member) {
+        return member.getTeam() == null ? null : member.getTeam().getId();
+    }
+}
@@ -0,0 +1,170 @@
+package study.datajpa.repository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Team;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+팀 회원 수 증감 누적기
+회원이 저장/팀 변경/삭제될 때마다 team 행을 수정하면 인기 팀 행에 잠금이 몰리므로
+커밋된 증감만 팀별 LongAdder에 모아두고(경합 없이 더하기만) 주기적으로 한 번의 JDBC batch로 반영한다.
+- 반영 전까지 team.member_count는 flush-interval만큼 늦을 수 있다.
+- 벌크 삭제(deleteAllInBatch 등)는 엔티티 리스너를 거치지 않으므로 MemberBulkUpdateAspect가 커밋 후 recount()로 다시 맞춘다.
+- 애플리케이션 인스턴스 메모리에 모으므로 종료 시 남은 값을 반영한다. (비정상 종료 시 유실 -> recount)
+ */
+@Slf4j
+@Component
+public class TeamMemberCounts {
+    private static final Object RECOUNT_SCHEDULED = new Object(); //트랜잭션 리소스 키
+    private final Map<Long, LongAdder> deltas = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TableVersions tableVersions;
+    //엔티티 리스너(EntityManagerFactory 생성 중에 만들어짐)가 의존하므로 JPA 빈은 사용할 때 찾는다.
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public TeamMemberCounts(DataSource dataSource,
+                            TableVersions tableVersions,
+                            ObjectProvider<PlatformTransactionManager> transactionManager,
+                            ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.tableVersions = tableVersions;
+        this.transactionManager = transactionManager;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    //커밋되면 반영 대상에 더한다. (롤백되면 버림)
+    public void add(Long teamId, int delta) {
+        if (teamId == null || delta == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accumulate(teamId, delta);
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(RECOUNT_SCHEDULED)) {
+            return; //커밋 후 재계산에 포함된다.
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Integer> pending = (Map<Long, Integer>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Integer> txDeltas = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, txDeltas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TeamMemberCounts.this);
+                    if (status == STATUS_COMMITTED) {
+                        txDeltas.forEach(TeamMemberCounts.this::accumulate);
+                    }
+                }
+            });
+            pending = txDeltas;
+        }
+        pending.merge(teamId, delta, Integer::sum);
+    }
+
+    //아직 DB에 반영되지 않은 증감
+    public long pending(Long teamId) {
+        LongAdder adder = deltas.get(teamId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    //모아둔 증감을 batch update 한 번으로 반영 (동시에 두 번 실행되지 않게 synchronized)
+    @Scheduled(fixedDelayString = "${datajpa.team-member-count.flush-interval:1s}")
+    public synchronized int flush() {
+        List<Object[]> updates = new ArrayList<>();
+        deltas.forEach((teamId, adder) -> {
+            long delta = adder.sumThenReset(); //셀마다 getAndSet(0) -> 동시에 더해진 값은 다음 flush로
+            if (delta != 0) {
+                updates.add(new Object[]{delta, teamId});
+            }
+        });
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        try {
+            new TransactionTemplate(transactionManager.getObject()).executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(
+                            "update team set member_count = member_count + ? where team_id = ?", updates));
+        } catch (RuntimeException e) {
+            //반영하지 못한 값은 되돌려 두고 다음에 다시 시도
+            updates.forEach(update -> accumulate((Long) update[1], (Long) update[0]));
+            log.warn("team member count flush failed ({} teams), will retry", updates.size(), e);
+            return 0;
+        }
+        //2차 캐시(l2cache 프로필)에 남은 이전 회원 수 제거
+        updates.forEach(update -> entityManagerFactory.getObject().getCache().evict(Team.class, update[1]));
+        //팀 목록 응답(memberCount 포함)의 ETag가 바뀌도록
+        tableVersions.touch(Team.class);
+        return updates.size();
+    }
+
+    //전체 재계산 (벌크 삭제 후, 비정상 종료 후). 모아둔 증감은 버린다.
+    //커밋 후 콜백에서도 부를 수 있게 항상 새 트랜잭션으로 실행한다.
+    public synchronized int recount() {
+        deltas.clear();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager.getObject());
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int updated = tx.execute(status -> jdbcTemplate.update(
+                "update team t set member_count = (select count(*) from member m where m.team_id = t.team_id)"));
+        entityManagerFactory.getObject().getCache().evict(Team.class);
+        tableVersions.touch(Team.class);
+        return updated;
+    }
+
+    //트랜잭션 안이면 커밋된 뒤에(롤백되면 하지 않음), 밖이면 바로 재계산
+    //한 트랜잭션에서 여러 번 불러도 한 번만 실행한다.
+    public void recountAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recount();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(RECOUNT_SCHEDULED)) {
+            return;
+        }
+        //이 트랜잭션에서 모은 증감은 재계산에 포함되므로 버린다. (커밋 후 두 번 더해지지 않게)
+        @SuppressWarnings("unchecked")
+        Map<Long, Integer> pending = (Map<Long, Integer>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            pending.clear();
+        }
+        TransactionSynchronizationManager.bindResource(RECOUNT_SCHEDULED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(RECOUNT_SCHEDULED);
+                if (status == STATUS_COMMITTED) {
+                    recount();
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void accumulate(Long teamId, long delta) {
+        deltas.computeIfAbsent(teamId, id -> new LongAdder()).add(delta);
+    }
+}
@@ -1,9 +1,17 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import study.datajpa.dto.TeamSummary;
 import study.datajpa.entity.Team;
 
 @Repository
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    //팀 목록 API용 projection
+    @Query("select t.id as id, t.name as name, t.memberCount as memberCount from Team t")
+    Slice<TeamSummary> findSummarySlice(Pageable pageable);
 }
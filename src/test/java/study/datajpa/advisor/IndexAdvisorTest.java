@@ -0,0 +1,64 @@
+package study.datajpa.advisor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class IndexAdvisorTest {
+    @Autowired
+    IndexAdvisor indexAdvisor;
+
+    @Test
+    public void repositoryQueriesUseIndexes() {
+        List<IndexAdvice> advices = indexAdvisor.analyze();
+        Map<String, IndexAdvice> byQuery = advices.stream()
+                .collect(Collectors.toMap(IndexAdvice::query, Function.identity()));
+
+        //username 조건
+        assertThat(byQuery.get("MemberRepository.findByUsername").index()).isEqualToIgnoringCase("idx_member_username_age");
+        assertThat(byQuery.get("MemberRepository.findByNames").tableScan()).isFalse();
+        assertThat(byQuery.get("MemberRepository.findOptionalByUsername").tableScan()).isFalse();
+        //username + age 조건
+        assertThat(byQuery.get("MemberRepository.findUser").tableScan()).isFalse();
+        //age 조건 (+ username desc 정렬)
+        assertThat(byQuery.get("MemberRepository.bulkAgePlus").index()).isEqualToIgnoringCase("idx_member_age_username");
+        assertThat(byQuery.get("@NamedQuery Member.pageByAge").tableScan()).isFalse();
+        IndexAdvice keyset = byQuery.get("MemberRepository.findByAgeOrderByUsernameDescIdDesc");
+        assertThat(keyset.sql()).endsWith("order by username desc, member_id desc");
+        assertThat(keyset.index()).isEqualToIgnoringCase("idx_member_age_username");
+        assertThat(keyset.sortedByIndex()).isTrue();
+        assertThat(keyset.isMissingIndex()).isFalse();
+
+        assertThat(advices).filteredOn(IndexAdvice::tableScan).isEmpty();
+        assertThat(advices).allSatisfy(advice -> assertThat(advice.plan()).isNotBlank());
+    }
+
+    @Test
+    public void suggestsMissingIndex() {
+        IndexAdvice advice = indexAdvisor.analyze("select t from Team t where t.name = :name").orElseThrow();
+
+        assertThat(advice.tableScan()).isTrue();
+        assertThat(advice.suggestion()).isEqualTo("create index idx_team_name on team (name)");
+    }
+
+    @Test
+    public void suggestsEqualitySortRangeOrder() {
+        IndexAdvice advice = indexAdvisor.analyze(
+                "select m from Member m where m.age > :age and m.username = :username order by m.id desc").orElseThrow();
+
+        //정렬을 인덱스로 처리하지 못하면 = 조건 -> 정렬 -> 범위 조건 순서로 제안
+        assertThat(advice.sortedByIndex()).isFalse();
+        assertThat(advice.suggestion())
+                .isEqualTo("create index idx_member_username_member_id_age on member (username, member_id desc, age)");
+    }
+}
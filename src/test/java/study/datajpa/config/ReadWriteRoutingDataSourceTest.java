@@ -0,0 +1,102 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//primary/replica를 별도의 메모리 DB로 두고, replicate()를 호출해야만 replica에 반영되도록 해서 라우팅을 확인한다.
+class ReadWriteRoutingDataSourceTest {
+    DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1", "sa", "");
+    DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1", "sa", "");
+
+    JdbcTemplate jdbc;
+    TransactionTemplate tx;
+    TransactionTemplate readOnlyTx;
+
+    void setUp(Duration stickiness) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, stickiness));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        tx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @BeforeEach
+    void createTables() {
+        for (DataSource ds : List.of(primary, replica)) {
+            JdbcTemplate template = new JdbcTemplate(ds);
+            template.execute("drop table if exists member");
+            template.execute("create table member (username varchar(255))");
+        }
+    }
+
+    @Test
+    public void readOnlyTransactionUsesReplica() {
+        setUp(Duration.ZERO);
+
+        tx.executeWithoutResult(status -> jdbc.update("insert into member values ('member1')"));
+
+        //아직 복제 전이므로 replica에서는 보이지 않는다.
+        assertThat(readOnlyTx.execute(status -> count())).isEqualTo(0);
+        assertThat(tx.execute(status -> count())).isEqualTo(1);
+
+        replicate();
+        assertThat(readOnlyTx.execute(status -> count())).isEqualTo(1);
+    }
+
+    @Test
+    public void readAfterWriteSticksToPrimary() throws InterruptedException {
+        setUp(Duration.ofMillis(200));
+
+        tx.executeWithoutResult(status -> jdbc.update("insert into member values ('member1')"));
+
+        //커밋 직후의 읽기는 primary -> 방금 쓴 데이터가 보인다.
+        assertThat(readOnlyTx.execute(status -> count())).isEqualTo(1);
+
+        //stickiness가 지나면 다시 replica
+        Thread.sleep(300);
+        assertThat(readOnlyTx.execute(status -> count())).isEqualTo(0);
+    }
+
+    @Test
+    public void rollbackDoesNotStick() {
+        setUp(Duration.ofMinutes(1));
+
+        //primary에만 있는 데이터
+        new JdbcTemplate(primary).update("insert into member values ('member0')");
+
+        tx.executeWithoutResult(status -> {
+            jdbc.update("insert into member values ('member1')");
+            status.setRollbackOnly();
+        });
+
+        //커밋되지 않은 쓰기는 primary 고정 대상이 아니다. -> replica
+        assertThat(readOnlyTx.execute(status -> count())).isEqualTo(0);
+
+        tx.executeWithoutResult(status -> jdbc.update("insert into member values ('member2')"));
+        assertThat(readOnlyTx.execute(status -> count())).isEqualTo(2);
+    }
+
+    private Integer count() {
+        return jdbc.queryForObject("select count(*) from member", Integer.class);
+    }
+
+    private void replicate() {
+        List<String> usernames = new JdbcTemplate(primary).queryForList("select username from member", String.class);
+        JdbcTemplate template = new JdbcTemplate(replica);
+        template.update("delete from member");
+        usernames.forEach(username -> template.update("insert into member values (?)", username));
+    }
+}
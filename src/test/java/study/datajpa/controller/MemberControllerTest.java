@@ -0,0 +1,106 @@
+package study.datajpa.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.metrics.ThreadQueryStats;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamMemberCounts;
+import study.datajpa.repository.TeamRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//API 요청은 별도 트랜잭션으로 조회하므로 데이터가 커밋되어 있어야 한다. (@Transactional 없음)
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TeamMemberCounts teamMemberCounts;
+
+    Team team;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(memberRepository.findListByUsername("api"));
+        if (team != null) {
+            teamRepository.delete(team);
+        }
+    }
+
+    @Test
+    @DisplayName("회원 단건/목록 - 팀 이름까지 projection으로")
+    void members() throws Exception {
+        team = teamRepository.save(new Team("apiTeam"));
+        Member member = memberRepository.save(new Member("api", 900, team));
+
+        mockMvc.perform(get("/members/{id}", member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("api"))
+                .andExpect(jsonPath("$.teamName").value("apiTeam"));
+        mockMvc.perform(get("/members").param("age", "900"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("api"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+        mockMvc.perform(get("/teams/{id}/members", team.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+        mockMvc.perform(get("/members/{id}", -1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("조건부 GET - 변경이 없으면 DB 조회 없이 304, 회원이 바뀌면 200")
+    void conditionalGet() throws Exception {
+        memberRepository.save(new Member("api", 901));
+        String etag = mockMvc.perform(get("/members").param("age", "901"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //변경 없음 -> 304, SQL 0개
+        long statementsBefore = ThreadQueryStats.current().getStatements();
+        mockMvc.perform(get("/members").param("age", "901").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(ThreadQueryStats.current().getStatements()).isEqualTo(statementsBefore);
+
+        //회원 추가 -> 버전이 바뀌어 200
+        memberRepository.save(new Member("api", 901));
+        mockMvc.perform(get("/members").param("age", "901").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2));
+    }
+
+    @Test
+    @DisplayName("조건부 GET - 팀 회원 수가 반영(flush)되면 팀 목록은 200")
+    void teamsAfterMemberCountFlush() throws Exception {
+        team = teamRepository.save(new Team("apiTeam"));
+        String etag = mockMvc.perform(get("/teams").param("size", "1000"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //회원 저장은 member 테이블만 바꾸고, team.member_count는 flush에서 JDBC로 바뀐다.
+        memberRepository.save(new Member("api", 902, team));
+        teamMemberCounts.flush();
+
+        mockMvc.perform(get("/teams").param("size", "1000").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+}
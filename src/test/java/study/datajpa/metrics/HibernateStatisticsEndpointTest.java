@@ -0,0 +1,48 @@
+package study.datajpa.metrics;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class HibernateStatisticsEndpointTest {
+    @Autowired
+    HibernateStatisticsEndpoint endpoint;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    EntityManager em;
+
+    @Test
+    @DisplayName("하이버네이트 통계 요약")
+    @SuppressWarnings("unchecked")
+    void summary() {
+        //given
+        endpoint.reset();
+        memberRepository.save(new Member("statistics", 10));
+        em.flush();
+        em.clear();
+
+        //when
+        memberRepository.findListByUsername("statistics");
+        Map<String, Object> summary = endpoint.summary();
+
+        //then
+        assertThat(summary.get("enabled")).isEqualTo(true);
+        Map<String, Object> entities = (Map<String, Object>) summary.get("entities");
+        assertThat(entities.get("inserts")).isEqualTo(1L);
+        assertThat(entities.get("loads")).isEqualTo(1L);
+        Map<String, Object> queries = (Map<String, Object>) summary.get("queries");
+        assertThat((long) queries.get("executions")).isGreaterThanOrEqualTo(1L);
+    }
+}
@@ -0,0 +1,107 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MeterRegistry registry;
+    @Autowired
+    EntityManager em;
+
+    @Test
+    @DisplayName("리포지토리 메서드별 SQL 수, 건수, 엔티티 수")
+    void recordsPerMethod() {
+        //given
+        memberRepository.save(new Member("metric1", 10));
+        memberRepository.save(new Member("metric2", 10));
+        em.flush();
+        em.clear();
+        //테스트 컨텍스트(MeterRegistry)는 다른 테스트와 공유되므로 호출 전후 차이로 확인한다.
+        double statementsBefore = summaryTotal("repository.statements", "MemberRepository", "findByNames");
+        double rowsBefore = summaryTotal("repository.rows", "MemberRepository", "findByNames");
+        double entitiesBefore = summaryTotal("repository.entities", "MemberRepository", "findByNames");
+        long invocationsBefore = invocations("MemberJpaRepository", "findByUsername");
+
+        //when
+        List<Member> result = memberRepository.findByNames(List.of("metric1", "metric2"));
+        memberJpaRepository.findByUsername("metric1");
+
+        //then
+        assertThat(result).size().isEqualTo(2);
+        assertThat(summaryTotal("repository.statements", "MemberRepository", "findByNames") - statementsBefore).isEqualTo(1);
+        assertThat(summaryTotal("repository.rows", "MemberRepository", "findByNames") - rowsBefore).isEqualTo(2);
+        assertThat(summaryTotal("repository.entities", "MemberRepository", "findByNames") - entitiesBefore).isEqualTo(2);
+        assertThat(invocations("MemberJpaRepository", "findByUsername") - invocationsBefore).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Stream 결과는 close 할 때 소비한 건수로 기록한다")
+    void recordsStreamOnClose() {
+        //given
+        memberRepository.save(new Member("metricStream1", 10));
+        memberRepository.save(new Member("metricStream2", 10));
+        em.flush();
+        em.clear();
+        long invocationsBefore = invocations("MemberRepository", "streamMemberDto");
+        double rowsBefore = summaryTotal("repository.rows", "MemberRepository", "streamMemberDto");
+        double statementsBefore = summaryTotal("repository.statements", "MemberRepository", "streamMemberDto");
+
+        //when
+        long count;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(100)) {
+            //소비 전에는 기록하지 않는다.
+            assertThat(invocations("MemberRepository", "streamMemberDto")).isEqualTo(invocationsBefore);
+            count = stream.toList().size();
+        }
+
+        //then
+        assertThat(invocations("MemberRepository", "streamMemberDto") - invocationsBefore).isEqualTo(1);
+        assertThat(summaryTotal("repository.rows", "MemberRepository", "streamMemberDto") - rowsBefore).isEqualTo(count);
+        //소비 중에 나가는 SQL은 이 호출로 셀 수 없으므로 SQL 수는 기록하지 않는다.
+        assertThat(summaryTotal("repository.statements", "MemberRepository", "streamMemberDto")).isEqualTo(statementsBefore);
+    }
+
+    @Test
+    @DisplayName("리포지토리 밖에서는 현재 메서드가 없다")
+    void currentRepositoryMethod() {
+        assertThat(ThreadQueryStats.current().getRepositoryMethod()).isNull();
+    }
+
+    //아직 호출된 적 없으면 지표가 없으므로 0
+    private double summaryTotal(String name, String repository, String method) {
+        DistributionSummary summary = registry.find(name)
+                .tags("repository", repository, "method", method, "outcome", "SUCCESS")
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private long invocations(String repository, String method) {
+        Timer timer = registry.find("repository.invocations")
+                .tags("repository", repository, "method", method, "outcome", "SUCCESS")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,44 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//모든 쿼리가 느린 쿼리가 되도록 threshold 0. 바인딩 파라미터는 기본으로 남기지 않으므로 켠다. (dev 프로필과 같은 설정)
+@SpringBootTest(properties = {"datajpa.slow-query.threshold=0ms", "datajpa.slow-query.log-parameters=true"})
+@Transactional
+@ExtendWith(OutputCaptureExtension.class)
+class SlowQueryLoggerTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    @DisplayName("느린 쿼리는 바인딩 파라미터, 리포지토리 메서드와 함께 남긴다")
+    void logsSlowQuery(CapturedOutput output) {
+        double before = slowQueries("MemberRepository.findListByUsername");
+
+        memberRepository.findListByUsername("slowQueryUser");
+
+        assertThat(output).contains("slow query")
+                .contains("[MemberRepository.findListByUsername]")
+                .contains("(slowQueryUser)");
+        assertThat(slowQueries("MemberRepository.findListByUsername")).isEqualTo(before + 1);
+    }
+
+    private double slowQueries(String method) {
+        Counter counter = registry.find("datasource.slow.queries").tag("method", method).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,48 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.dto.MemberNameAge;
+import study.datajpa.entity.Member;
+import study.datajpa.metrics.ThreadQueryStats;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//비동기 메서드는 다른 스레드/트랜잭션에서 실행되므로 데이터가 커밋되어 있어야 한다. (@Transactional 없음)
+@SpringBootTest
+class AsyncRepositoryTest {
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(memberRepository.findListByUsername("async"));
+    }
+
+    @Test
+    @DisplayName("@Async 쿼리 메서드 - 다른 스레드에서 실행 후 합치기")
+    void asyncQueries() {
+        //given
+        memberRepository.save(new Member("async", 800));
+        memberRepository.save(new Member("async", 800));
+
+        //when
+        //SQL 수는 SQL을 실행한 스레드에 쌓인다. 호출한 스레드의 값이 그대로면 다른 스레드에서 실행된 것
+        long callerStatements = ThreadQueryStats.current().getStatements();
+        CompletableFuture<List<MemberNameAge>> nameAges = memberRepository.findNameAgeAsyncByAge(800);
+        CompletableFuture<Long> count = memberRepository.countAsyncByAge(800);
+        CompletableFuture<List<Member>> members = memberRepository.findAsyncByUsername("async");
+
+        //then
+        assertThat(nameAges.join()).containsOnly(new MemberNameAge("async", 800)).hasSize(2);
+        assertThat(count.join()).isEqualTo(2);
+        assertThat(members.join()).hasSize(2);
+        assertThat(ThreadQueryStats.current().getStatements()).isEqualTo(callerStatements);
+    }
+}
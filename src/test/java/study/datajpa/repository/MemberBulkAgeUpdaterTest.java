@@ -0,0 +1,92 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//구간마다 별도 스레드/트랜잭션에서 실행되므로 테스트 데이터는 커밋되어 있어야 한다. (@Transactional 없음)
+@SpringBootTest(properties = {
+        "datajpa.bulk-update.chunk-size=100",
+        "datajpa.bulk-update.parallelism=3"
+})
+class MemberBulkAgeUpdaterTest {
+    @Autowired
+    MemberBulkAgeUpdater updater;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(memberRepository.findListByUsername("bulkUpdate"));
+    }
+
+    @Test
+    @DisplayName("구간별 병렬 벌크 수정")
+    void runInChunks() {
+        //given
+        memberRepository.saveAllBatched(IntStream.range(0, 1000)
+                .mapToObj(i -> new Member("bulkUpdate", i % 2 == 0 ? 600 : 10)));
+
+        //when
+        List<Integer> progress = new ArrayList<>();
+        BulkAgeUpdateJob job = updater.run(updater.prepare(600),
+                j -> {
+                    synchronized (progress) {
+                        progress.add(j.getCompletedChunks().size());
+                    }
+                });
+
+        //then
+        assertThat(job.isCompleted()).isTrue();
+        assertThat(job.getUpdatedRows()).isEqualTo(500);
+        assertThat(progress).hasSize(job.getTotalChunks());
+        assertThat(countByAge(601)).isEqualTo(500);
+        assertThat(countByAge(600)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("실패 후 같은 job으로 다시 실행하면 남은 구간만 처리한다")
+    void resume() {
+        //given
+        memberRepository.saveAllBatched(IntStream.range(0, 1000)
+                .mapToObj(i -> new Member("bulkUpdate", 700)));
+        BulkAgeUpdateJob job = updater.prepare(700);
+        //첫 번째로 끝난 구간의 progress에서 한 번 실패 -> 아직 시작하지 않은 구간은 실행하지 않는다.
+        AtomicBoolean failed = new AtomicBoolean();
+        assertThatThrownBy(() -> updater.run(job, j -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("progress failure");
+            }
+        })).isInstanceOf(CompletionException.class);
+        int done = job.getCompletedChunks().size();
+        assertThat(job.isCompleted()).isFalse();
+
+        //when
+        AtomicInteger resumed = new AtomicInteger();
+        updater.run(job, j -> resumed.incrementAndGet());
+
+        //then
+        assertThat(job.isCompleted()).isTrue();
+        assertThat(resumed.get()).isEqualTo(job.getTotalChunks() - done);
+        assertThat(countByAge(701)).isEqualTo(1000);
+        assertThat(countByAge(702)).isEqualTo(0);
+    }
+
+    private long countByAge(int age) {
+        return memberRepository.findByAge(age, PageRequest.of(0, 1), CountStrategy.EXACT).getTotalElements();
+    }
+}
@@ -6,11 +6,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Window;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.MemberJpaRepository;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -134,6 +136,49 @@ class MemberJpaRepositoryTest {
         assertThat(totalCnt).isEqualTo(5);
     }
 
+    @Test
+    @Rollback
+    @DisplayName("JPQL 키셋(커서) 페이징 테스트")
+    public void keysetPaging(){
+        //given
+        for(int i=1; i<=10; i++){
+            memberJpaRepository.save(new Member("keyset"+i, 100 + i%2));
+        }
+
+        //when
+        List<String> usernames = new ArrayList<>();
+        String cursor = null;
+        do {
+            Window<Member> window = memberJpaRepository.findByKeyset(101, MemberCursor.decode(cursor), 2);
+            window.forEach(member -> usernames.add(member.getUsername()));
+            cursor = window.hasNext() ? MemberCursor.encode(window.positionAt(window.size() - 1)) : null;
+        } while (cursor != null);
+
+        //then
+        //order by가 username desc, id desc로 되어 있음에 주의
+        assertThat(usernames).containsExactly("keyset9", "keyset7", "keyset5", "keyset3", "keyset1");
+    }
+
+    @Test
+    @Rollback
+    @DisplayName("total count 캐시")
+    public void cachedTotalCount(){
+        //given
+        for(int i=1; i<=5; i++){
+            memberJpaRepository.save(new Member("count"+i, 300));
+        }
+        em.flush();
+
+        //when
+        long first = memberJpaRepository.cachedTotalCount(300);
+        memberJpaRepository.bulkAgePlus(300); //벌크 수정 후에는 다시 센다.
+        long afterBulk = memberJpaRepository.cachedTotalCount(300);
+
+        //then
+        assertThat(first).isEqualTo(5);
+        assertThat(afterBulk).isEqualTo(0);
+    }
+
     @Test
     public void bulkUpdate(){
         //given
@@ -3,23 +3,37 @@ package study.datajpa.repository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberNameAge;
+import study.datajpa.dto.MemberSummary;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.*;
@@ -36,6 +50,24 @@ class MemberRepositoryTest {
     @PersistenceContext
     EntityManager em;
 
+    //SessionFactory 통계는 캐시된 테스트 컨텍스트 전체가 공유하므로 켰으면 테스트 후 원래 값으로 되돌린다.
+    private Statistics enabledStatistics;
+    private boolean statisticsWereEnabled;
+
+    @AfterEach
+    void restoreStatistics() {
+        if (enabledStatistics != null) {
+            enabledStatistics.setStatisticsEnabled(statisticsWereEnabled);
+        }
+    }
+
+    private Statistics enableStatistics() {
+        enabledStatistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statisticsWereEnabled = enabledStatistics.isStatisticsEnabled();
+        enabledStatistics.setStatisticsEnabled(true);
+        return enabledStatistics;
+    }
+
     @Test
     @DisplayName("SpringDataJPA이용 memberRepository테스트")
     void MemberRepositoryTest() {
@@ -172,6 +204,34 @@ class MemberRepositoryTest {
         memberDto.forEach(System.out::println);
     }
 
+    @Test
+    @Rollback
+    @DisplayName("Projections - 엔티티를 만들지 않는다")
+    public void projections(){
+        //given
+        Team team = teamRepository.save(new Team("projectionTeam"));
+        memberRepository.save(new Member("projection1", 700, team));
+        memberRepository.save(new Member("projection2", 700));
+        em.flush();
+        em.clear();
+
+        //when
+        List<MemberSummary> summaries = memberRepository.findSummaryByAge(700);
+        List<MemberNameAge> nameAges = memberRepository.findNameAgeByAge(700);
+        List<MemberNameAge> dynamic = memberRepository.findProjectionByUsername("projection1", MemberNameAge.class);
+
+        //then
+        assertThat(summaries).extracting(MemberSummary::getUsername)
+                .containsExactlyInAnyOrder("projection1", "projection2");
+        assertThat(summaries).extracting(MemberSummary::getTeamName)
+                .containsExactlyInAnyOrder("projectionTeam", null);
+        assertThat(nameAges).containsExactlyInAnyOrder(
+                new MemberNameAge("projection1", 700), new MemberNameAge("projection2", 700));
+        assertThat(dynamic).containsExactly(new MemberNameAge("projection1", 700));
+        //영속성 컨텍스트에 아무것도 올라오지 않았다.
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(0);
+    }
+
     @Test
     @DisplayName("@Query에 in절 포함시키기")
     public void findByNames(){
@@ -187,6 +247,26 @@ class MemberRepositoryTest {
         assertThat(byNames).contains(m1, m2);
     }
 
+    @Test
+    @DisplayName("큰 in절 - 나눠서 조회하고 요청한 이름 순서로 합치기, 배열 파라미터로 조회하기")
+    @Rollback
+    public void findByManyNames(){
+        //given - chunk-size(1000)보다 많은 이름
+        memberRepository.saveAllBatched(IntStream.range(0, 2500).mapToObj(i -> new Member("inClause" + i, 10)));
+        List<String> names = new ArrayList<>(IntStream.range(0, 2500).mapToObj(i -> "inClause" + i).toList());
+        Collections.reverse(names);
+        names.add(1, "none"); //없는 이름
+
+        //when
+        List<Member> chunked = memberRepository.findByNamesInChunks(names);
+        List<Member> array = memberRepository.findByNameArray(names.toArray(String[]::new));
+
+        //then
+        assertThat(chunked).extracting(Member::getUsername)
+                .containsExactlyElementsOf(names.stream().filter(name -> !name.equals("none")).toList());
+        assertThat(array).hasSize(2500);
+    }
+
     @Test
     @DisplayName("유연한 반환타입")
     public void returnTypes(){
@@ -321,6 +401,95 @@ class MemberRepositoryTest {
         assertThat(slice.hasNext()).isTrue();
     }
 
+    @Test
+    @Rollback
+    @DisplayName("springDataJPA 키셋(커서) 페이징 테스트")
+    public void keysetPaging() {
+        //given
+        for (int i = 1; i <= 10; i++) {
+            memberRepository.save(new Member("keyset" + i, 100 + i % 2));
+        }
+
+        //when
+        //커서 토큰만 주고받으면서 끝까지 읽는다.
+        List<String> usernames = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Window<Member> window = memberRepository.findByAgeOrderByUsernameDescIdDesc(
+                    101, MemberCursor.decode(cursor), Limit.of(2));
+            window.forEach(member -> usernames.add(member.getUsername()));
+            cursor = window.hasNext() ? MemberCursor.encode(window.positionAt(window.size() - 1)) : null;
+            pages++;
+        } while (cursor != null);
+
+        //then
+        assertThat(pages).isEqualTo(3);
+        assertThat(usernames).containsExactly("keyset9", "keyset7", "keyset5", "keyset3", "keyset1");
+    }
+
+    @Test
+    @Rollback
+    @DisplayName("깊은 페이지 조회 - offset과 키셋이 같은 페이지를 읽는다")
+    public void deepPageOffsetVsKeyset() {
+        //given
+        //속도 비교는 DeepPageBenchmark에서 한다.
+        int size = 10;
+        int page = 4; //5번째 페이지
+        for (int i = 0; i < (page + 1) * size; i++) {
+            memberRepository.save(new Member(String.format("deep%06d", i), 200));
+        }
+        em.flush();
+        em.clear();
+
+        //키셋 페이징의 시작 위치 = 4번째 페이지의 마지막 회원
+        Slice<Member> prev = memberRepository.findSliceByAge(200,
+                PageRequest.of(page - 1, size, Sort.by(Sort.Direction.DESC, "username", "id")));
+        Member last = prev.getContent().get(size - 1);
+        String cursor = MemberCursor.encode(MemberCursor.of(last.getUsername(), last.getId()));
+
+        //when
+        Slice<Member> offsetPage = memberRepository.findSliceByAge(200,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "username", "id")));
+        Window<Member> keysetPage = memberRepository.findByAgeOrderByUsernameDescIdDesc(
+                200, MemberCursor.decode(cursor), Limit.of(size));
+
+        //then
+        assertThat(offsetPage.getContent()).hasSize(size);
+        assertThat(keysetPage.getContent().stream().map(Member::getUsername).collect(toList()))
+                .isEqualTo(offsetPage.getContent().stream().map(Member::getUsername).collect(toList()));
+    }
+
+    @Test
+    @Rollback
+    @DisplayName("페이징 count 전략 - 캐시 / 짧은 페이지 생략")
+    public void pagingCountStrategy() {
+        //given
+        for (int i = 1; i <= 5; i++) {
+            memberRepository.save(new Member("count" + i, 300));
+        }
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "username"));
+
+        //when
+        Page<Member> cached = memberRepository.findByAge(300, pageRequest, CountStrategy.CACHED);
+        //새 회원이 flush되면 엔티티 리스너가 캐시를 비운다.
+        memberRepository.save(new Member("count6", 300));
+        em.flush();
+        Page<Member> afterSave = memberRepository.findByAge(300, pageRequest, CountStrategy.CACHED);
+        //벌크 수정도 캐시를 비운다. (age 300 -> 301)
+        memberRepository.bulkAgePlus(300);
+        Page<Member> afterBulk = memberRepository.findByAge(300, pageRequest, CountStrategy.CACHED);
+        //한 페이지에 다 들어오면 count 쿼리 없이 content 크기로 계산
+        Page<Member> shortPage = memberRepository.findByAge(301, PageRequest.of(0, 10), CountStrategy.SKIP_WHEN_SHORT);
+
+        //then
+        assertThat(cached.getTotalElements()).isEqualTo(5);
+        assertThat(afterSave.getTotalElements()).isEqualTo(6);
+        assertThat(afterBulk.getTotalElements()).isEqualTo(0);
+        assertThat(shortPage.getTotalElements()).isEqualTo(6);
+        assertThat(shortPage.getContent()).size().isEqualTo(6);
+    }
+
     @Test
     public void bulkUpdate(){
         //given
@@ -373,6 +542,122 @@ class MemberRepositoryTest {
         assertThat(findMember3.getAge()).isEqualTo(31);
     }
 
+    @Test
+    @Rollback
+    @DisplayName("대량 저장 - saveAllBatched는 저장한 회원만 준영속으로 만든다")
+    public void saveAllBatched() {
+        //given
+        //처리량 비교(saveAll vs saveAllBatched)는 SaveAllBenchmark에서 한다.
+        Member managed = memberRepository.save(new Member("batchedManaged", 401));
+        int count = 250; //batch_size(100)를 넘겨서 중간 flush도 거치게 한다.
+        List<Member> members = IntStream.range(0, count)
+                .mapToObj(i -> new Member("batched" + i, 401))
+                .collect(toList());
+
+        //when
+        long saved = memberRepository.saveAllBatched(members.stream());
+
+        //then
+        assertThat(saved).isEqualTo(count);
+        assertThat(memberRepository.findByAge(401, PageRequest.of(0, 1), CountStrategy.EXACT)
+                .getTotalElements()).isEqualTo(count + 1);
+        assertThat(members).allSatisfy(member -> assertThat(em.contains(member)).isFalse());
+        //호출 전에 영속 상태였던 회원은 그대로 영속 상태
+        assertThat(em.contains(managed)).isTrue();
+    }
+
+    @Test
+    @Rollback
+    @DisplayName("DTO 스트림 조회 - 영속성 컨텍스트에 엔티티가 쌓이지 않는다")
+    public void streamMemberDto() {
+        //given
+        Team team = new Team("streamTeam");
+        teamRepository.save(team);
+        memberRepository.save(new Member("stream1", 10, team));
+        memberRepository.save(new Member("stream2", 20)); //팀 없는 회원도 포함
+        em.flush();
+        em.clear();
+
+        //when
+        List<MemberDto> exported;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(1)) {
+            exported = stream.filter(dto -> dto.getUsername().startsWith("stream")).collect(toList());
+        }
+
+        //then
+        assertThat(exported).extracting(MemberDto::getUsername).containsExactly("stream1", "stream2");
+        assertThat(exported).extracting(MemberDto::getTeamName).containsExactly("streamTeam", null);
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(0);
+    }
+
+    @Test
+    @Rollback
+    @DisplayName("벌크 수정 - 영속성 컨텍스트를 비우지 않고 대상 회원만 맞추기")
+    public void bulkUpdateKeepingContext(){
+        //given
+        Member member1 = memberRepository.save(new Member("member1", 10));
+        Member member3 = memberRepository.save(new Member("member3", 30));
+        em.flush();
+        Statistics statistics = enableStatistics();
+
+        //when
+        int rowCnt = memberRepository.bulkAgePlusKeepingContext(30);
+        statistics.clear();
+        em.flush();
+
+        //then
+        assertThat(rowCnt).isGreaterThanOrEqualTo(1);
+        //clear되지 않았으므로 같은 인스턴스가 그대로 영속 상태
+        assertThat(em.contains(member1)).isTrue();
+        assertThat(em.contains(member3)).isTrue();
+        assertThat(member1.getAge()).isEqualTo(10);
+        assertThat(member3.getAge()).isEqualTo(31);
+        //고친 값은 이미 DB와 같으므로 flush 때 update가 다시 나가지 않는다.
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(0);
+        //version도 DB와 같이 올라가 있으므로 이후 수정이 낙관적 락 충돌 없이 반영된다.
+        assertThat(member3.getVersion()).isEqualTo(1L);
+        member3.setAge(32);
+        em.flush();
+
+        em.clear();
+        Member found = memberRepository.findById(member3.getId()).get();
+        assertThat(found.getAge()).isEqualTo(32);
+        assertThat(found.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    @Rollback
+    @DisplayName("벌크 수정 - 읽기 전용으로 읽은 대상 회원은 준영속, 일반 대상 회원은 다시 읽기")
+    public void bulkUpdateKeepingContextWithReadOnly(){
+        //given
+        memberRepository.save(new Member("keepUntouched", 10));
+        memberRepository.save(new Member("keepManaged", 30));
+        memberRepository.save(new Member("keepReadOnly", 35));
+        em.flush();
+        em.clear();
+        Member untouched = memberRepository.findListByUsername("keepUntouched").get(0);
+        Member managed = memberRepository.findListByUsername("keepManaged").get(0);
+        Member readOnly = memberRepository.findReadOnlyByUsername("keepReadOnly").get(0);
+
+        //when
+        memberRepository.bulkAgePlusKeepingContext(30);
+
+        //then
+        assertThat(em.contains(untouched)).isTrue();
+        assertThat(untouched.getAge()).isEqualTo(10);
+        assertThat(em.contains(managed)).isTrue();
+        assertThat(managed.getAge()).isEqualTo(31);
+        assertThat(managed.getVersion()).isEqualTo(1L);
+        //읽기 전용 회원은 예전 값을 가진 채 컨텍스트에 남지 않는다. 다시 조회하면 DB 값
+        assertThat(em.contains(readOnly)).isFalse();
+        assertThat(memberRepository.findById(readOnly.getId()).get().getAge()).isEqualTo(36);
+        //다시 읽은 회원은 이후 수정도 낙관적 락 충돌 없이 반영
+        managed.setAge(40);
+        em.flush();
+        em.clear();
+        assertThat(memberRepository.findById(managed.getId()).get().getVersion()).isEqualTo(2L);
+    }
+
     @Test
     public void findMemberLazy(){
         //given
@@ -408,6 +693,64 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    @Rollback
+    @DisplayName("배치 페치 - fetch join 없이 N+1 해결")
+    public void batchFetch(){
+        //given
+        //회원 1000명, 팀 100개
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            teams.add(teamRepository.save(new Team("batchTeam" + i)));
+        }
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            names.add("batch" + i);
+            memberRepository.save(new Member("batch" + i, 10, teams.get(i % 100)));
+        }
+        em.flush();
+        em.clear();
+        Statistics statistics = enableStatistics();
+        statistics.clear();
+
+        //when
+        List<Member> members = memberRepository.findByNames(names); //fetch join 없는 조회
+        members.forEach(member -> member.getTeam().getName()); //team 프록시 초기화
+        members.forEach(member -> Hibernate.initialize(member.getTeam().getMembers())); //team.members 컬렉션 초기화 (extra lazy라 size()는 count 쿼리)
+
+        //then
+        //회원 조회 1 + 팀 100개를 한번에 1 + members 컬렉션 100개를 한번에 1
+        assertThat(members).size().isEqualTo(1000);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @Rollback
+    @DisplayName("읽기 전용 쿼리 힌트 - 변경 감지 안 함")
+    public void readOnlyQueryHint(){
+        //given
+        memberRepository.save(new Member("readOnly", 10));
+        em.flush();
+        em.clear();
+
+        //when
+        Member member = memberRepository.findReadOnlyByUsername("readOnly").get(0);
+        member.setAge(20);
+        em.flush();
+        em.clear();
+
+        //then
+        assertThat(memberRepository.findMemberByUsername("readOnly").getAge()).isEqualTo(10);
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    @DisplayName("읽기 전용 트랜잭션 - 모든 조회가 읽기 전용")
+    public void readOnlyTransaction(){
+        Session session = em.unwrap(Session.class);
+        assertThat(session.isDefaultReadOnly()).isTrue();
+    }
+
     @Test
     @DisplayName("fetch join 테스트")
     public void findMemberLazy2(){
@@ -478,4 +821,38 @@ class MemberRepositoryTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    @Rollback
+    @DisplayName("extra lazy - size/회원 추가로 team.members를 초기화하지 않는다")
+    public void extraLazyMembers(){
+        //given
+        Team team = teamRepository.save(new Team("extraLazyTeam"));
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("extraLazy" + i, 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        Team findTeam = teamRepository.findById(team.getId()).get();
+        List<Member> members = findTeam.getMembers();
+
+        //then
+        assertThat(members.size()).isEqualTo(5); //count 쿼리
+        assertThat(Hibernate.isInitialized(members)).isFalse();
+
+        memberRepository.save(new Member("extraLazy5", 10, findTeam)); //changeTeam -> members.add()
+        assertThat(Hibernate.isInitialized(members)).isFalse();
+        assertThat(members.size()).isEqualTo(6); //대기 중인 insert를 flush하고 다시 count
+        assertThat(Hibernate.isInitialized(members)).isFalse();
+
+        //member_id 순서로 2명씩 나눠서 순회
+        List<String> usernames = new ArrayList<>();
+        memberRepository.iterateByTeamId(team.getId(), 2)
+                .forEachRemaining(member -> usernames.add(member.getUsername()));
+        assertThat(usernames).containsExactly(
+                "extraLazy0", "extraLazy1", "extraLazy2", "extraLazy3", "extraLazy4", "extraLazy5");
+        assertThat(Hibernate.isInitialized(members)).isFalse();
+    }
+
+}
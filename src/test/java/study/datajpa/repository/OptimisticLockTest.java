@@ -0,0 +1,112 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//동시 수정은 각자 커밋되어야 하므로 @Transactional 없음
+@SpringBootTest(properties = "datajpa.optimistic-retry.max-attempts=50")
+class OptimisticLockTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    OptimisticRetryExecutor retryExecutor;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(memberRepository.findListByUsername("optimistic"));
+    }
+
+    @Test
+    @DisplayName("먼저 읽은 트랜잭션이 나중에 커밋하면 충돌 (덮어쓰지 않는다)")
+    void conflict() {
+        Long id = memberRepository.save(new Member("optimistic", 10)).getId();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        TransactionTemplate otherTx = new TransactionTemplate(transactionManager);
+        otherTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        assertThatThrownBy(() -> tx.executeWithoutResult(status -> {
+            Member member = memberRepository.findById(id).orElseThrow();
+            //그 사이 다른 트랜잭션이 수정하고 커밋
+            otherTx.executeWithoutResult(s -> memberRepository.findById(id).orElseThrow().setAge(20));
+            member.setAge(30);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        Member member = memberRepository.findById(id).orElseThrow();
+        assertThat(member.getAge()).isEqualTo(20);
+        assertThat(member.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("충돌하면 새 트랜잭션에서 다시 읽고 다시 수정한다")
+    void retry() {
+        Long id = memberRepository.save(new Member("optimistic", 10)).getId();
+        TransactionTemplate otherTx = new TransactionTemplate(transactionManager);
+        otherTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger attempts = new AtomicInteger();
+
+        retryExecutor.execute(() -> {
+            Member member = memberRepository.findById(id).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                otherTx.executeWithoutResult(s -> memberRepository.findById(id).orElseThrow().setAge(20));
+            }
+            member.setAge(member.getAge() + 1);
+        });
+
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(memberRepository.findById(id).orElseThrow().getAge()).isEqualTo(21);
+    }
+
+    @Test
+    @DisplayName("동시 증가 - 낙관적 재시도, 비관적 락, 벌크 update 모두 유실 없음")
+    void concurrentIncrements() throws Exception {
+        Long id = memberRepository.save(new Member("optimistic", 0)).getId();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int writers = 8;
+        int increments = 5;
+
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            var futures = IntStream.range(0, writers).mapToObj(i -> pool.submit(() -> {
+                for (int n = 0; n < increments; n++) {
+                    retryExecutor.execute(() -> {
+                        Member member = memberRepository.findById(id).orElseThrow();
+                        member.setAge(member.getAge() + 1);
+                    });
+                    tx.executeWithoutResult(status -> {
+                        Member member = memberRepository.findByIdForUpdate(id).orElseThrow();
+                        member.setAge(member.getAge() + 1);
+                    });
+                    tx.executeWithoutResult(status -> memberRepository.bulkAgePlusById(id));
+                }
+            })).toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Member member = memberRepository.findById(id).orElseThrow();
+        assertThat(member.getAge()).isEqualTo(writers * increments * 3);
+        assertThat(member.getVersion()).isEqualTo(writers * increments * 3L);
+    }
+}
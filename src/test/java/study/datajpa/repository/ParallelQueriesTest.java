@@ -0,0 +1,90 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ParallelQueriesTest {
+    @Autowired
+    ParallelQueries parallelQueries;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    TeamJpaRepository teamJpaRepository;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    @DisplayName("느린 조회들을 동시에 실행하면 전체 시간은 가장 느린 조회에 가깝다")
+    void runsConcurrently() {
+        //given
+        long sleepMillis = 300;
+
+        //when
+        long start = System.nanoTime();
+        CompletableFuture<Long> members = parallelQueries.submit(() -> {
+            sleep(sleepMillis);
+            return memberJpaRepository.count();
+        });
+        CompletableFuture<Long> teams = parallelQueries.submit(() -> {
+            sleep(sleepMillis);
+            return teamJpaRepository.count();
+        });
+        parallelQueries.awaitAll(members, teams);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        //then
+        assertThat(members.join()).isGreaterThanOrEqualTo(0);
+        assertThat(teams.join()).isGreaterThanOrEqualTo(0);
+        assertThat(elapsedMillis).isLessThan(sleepMillis * 2);
+    }
+
+    @Test
+    @DisplayName("하나라도 실패하면 원래 예외를 던진다")
+    void failure() {
+        CompletableFuture<Long> ok = parallelQueries.submit(memberJpaRepository::count);
+        CompletableFuture<Long> fail = parallelQueries.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThatThrownBy(() -> parallelQueries.awaitAll(ok, fail))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+    }
+
+    @Test
+    @DisplayName("트랜잭션 밖에서 큰 in절 조회는 나눈 조회를 동시에 실행하고 이름 순서로 합친다")
+    void findByNamesInChunks() {
+        //given
+        List<String> names = IntStream.range(0, 2500).mapToObj(i -> "parallelIn" + i).toList();
+        List<String> reversed = IntStream.range(0, 2500).mapToObj(i -> "parallelIn" + (2499 - i)).toList();
+        memberRepository.saveAllBatched(names.stream().map(name -> new Member(name, 10)));
+        try {
+            //when
+            List<Member> result = memberRepository.findByNamesInChunks(reversed);
+
+            //then
+            assertThat(result).extracting(Member::getUsername).containsExactlyElementsOf(reversed);
+        } finally {
+            memberRepository.deleteAllInBatch(memberRepository.findByNames(names));
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
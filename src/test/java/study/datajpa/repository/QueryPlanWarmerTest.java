@@ -0,0 +1,38 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.Query;
+import study.datajpa.entity.Member;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class QueryPlanWarmerTest {
+    @Autowired
+    QueryPlanWarmer queryPlanWarmer;
+
+    @Test
+    public void collectsDynamicQueries() throws NoSuchMethodException {
+        Map<String, Class<?>> queries = queryPlanWarmer.queries();
+        //JPQL을 바꿔도 테스트가 어긋나지 않게 리포지토리의 @Query 값을 그대로 읽는다.
+        String bulkAgePlus = MemberRepository.class.getMethod("bulkAgePlus", int.class)
+                .getAnnotation(Query.class).value();
+
+        //@Query는 Spring Data가 로딩 시점에 이미 파싱하므로 다시 예열하지 않는다.
+        assertThat(queries).doesNotContainKey(bulkAgePlus);
+        //직접 만드는 동적 JPQL은 호출할 때와 같은 결과 타입으로
+        assertThat(queries).containsEntry(MemberRepositoryImpl.BY_AGE, Member.class);
+        //정렬이 붙은 형태는 MemberRepositoryImpl.findByAge가 만드는 문자열과 같아야 한다.
+        assertThat(queries).containsEntry(
+                "select m from Member m where m.age = :age order by m.username desc", Member.class);
+        assertThat(queries).containsEntry(MemberRepositoryImpl.COUNT_BY_AGE, Long.class);
+        assertThat(queries).containsEntry(MemberJpaRepository.KEYSET_FIRST, Member.class);
+        assertThat(queries).containsEntry(MemberJpaRepository.KEYSET_NEXT, Member.class);
+
+        queryPlanWarmer.warmUp();
+    }
+}
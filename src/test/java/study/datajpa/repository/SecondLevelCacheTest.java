@@ -0,0 +1,84 @@
+package study.datajpa.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//리포지토리 호출마다 트랜잭션(영속성 컨텍스트)이 새로 열리도록 테스트에 @Transactional을 걸지 않는다.
+@SpringBootTest
+@ActiveProfiles("l2cache")
+class SecondLevelCacheTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Team id 조회는 두번째부터 DB에 가지 않는다")
+    void teamFindById() {
+        //given
+        Team team = teamRepository.save(new Team("cachedTeam"));
+        statistics.clear();
+
+        //when
+        teamRepository.findById(team.getId());
+        teamRepository.findById(team.getId());
+
+        //then
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(0);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Member.findByUsername 쿼리 캐시")
+    void namedQueryCache() {
+        //given
+        memberRepository.save(new Member("cachedMember", 10));
+        statistics.clear();
+
+        //when
+        memberRepository.findByUsername("cachedMember");
+        memberRepository.findByUsername("cachedMember");
+
+        //then
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("벌크 수정 후에는 캐시된 회원을 다시 읽는다")
+    void bulkUpdateEvictsCache() {
+        //given
+        Member member = memberRepository.save(new Member("bulkCached", 500));
+        memberRepository.findById(member.getId()); //캐시에 올라감
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkAgePlus(500));
+        Member findMember = memberRepository.findById(member.getId()).get();
+
+        //then
+        assertThat(findMember.getAge()).isEqualTo(501);
+    }
+}
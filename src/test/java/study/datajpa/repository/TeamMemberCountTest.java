@@ -0,0 +1,116 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//증감은 커밋 후에 모이므로 @Transactional 없음. 스케줄러가 끼어들지 않게 반영 주기를 길게 둔다.
+@SpringBootTest(properties = "datajpa.team-member-count.flush-interval=1h")
+class TeamMemberCountTest {
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TeamMemberCounts teamMemberCounts;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final List<Team> teams = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(memberRepository.findListByUsername("teamcount"));
+        teamRepository.deleteAllInBatch(teams);
+        teamMemberCounts.flush();
+    }
+
+    @Test
+    @DisplayName("회원 저장/팀 변경/삭제가 flush 후 팀 회원 수에 반영된다")
+    void countMembers() {
+        Team teamA = team("teamCountA");
+        Team teamB = team("teamCountB");
+        Member member1 = memberRepository.save(new Member("teamcount", 10, teamA));
+        memberRepository.save(new Member("teamcount", 20, teamA));
+        memberRepository.save(new Member("teamcount", 30, teamB));
+
+        //반영 전에는 DB 값이 그대로
+        assertThat(teamMemberCounts.pending(teamA.getId())).isEqualTo(2);
+        assertThat(memberCount(teamA)).isZero();
+
+        teamMemberCounts.flush();
+        assertThat(memberCount(teamA)).isEqualTo(2);
+        assertThat(memberCount(teamB)).isEqualTo(1);
+
+        //팀 변경: A -1, B +1
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.findById(member1.getId()).orElseThrow()
+                        .changeTeam(teamRepository.findById(teamB.getId()).orElseThrow()));
+        teamMemberCounts.flush();
+        assertThat(memberCount(teamA)).isEqualTo(1);
+        assertThat(memberCount(teamB)).isEqualTo(2);
+
+        //삭제: DB에 있던 팀(B) 기준으로 -1
+        memberRepository.deleteById(member1.getId());
+        teamMemberCounts.flush();
+        assertThat(memberCount(teamA)).isEqualTo(1);
+        assertThat(memberCount(teamB)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("롤백된 트랜잭션의 증감은 버린다")
+    void rollback() {
+        Team team = team("teamCountRollback");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.save(new Member("teamcount", 10, team));
+            memberRepository.flush(); //insert까지 나가도
+            status.setRollbackOnly();
+        });
+
+        assertThat(teamMemberCounts.pending(team.getId())).isZero();
+        teamMemberCounts.flush();
+        assertThat(memberCount(team)).isZero();
+    }
+
+    @Test
+    @DisplayName("벌크 삭제는 엔티티 리스너를 거치지 않으므로 커밋 후 recount로 다시 맞춘다")
+    void recountAfterBatchDelete() {
+        Team team = team("teamCountRecount");
+        memberRepository.save(new Member("teamcount", 10, team));
+        memberRepository.save(new Member("teamcount", 20, team));
+        teamMemberCounts.flush();
+        assertThat(memberCount(team)).isEqualTo(2);
+
+        //롤백되면 다시 세지 않는다.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.deleteAllInBatch(memberRepository.findListByUsername("teamcount"));
+            status.setRollbackOnly();
+        });
+        assertThat(memberCount(team)).isEqualTo(2);
+
+        memberRepository.deleteAllInBatch(memberRepository.findListByUsername("teamcount"));
+        assertThat(memberCount(team)).isZero();
+    }
+
+    private Team team(String name) {
+        Team team = teamRepository.save(new Team(name));
+        teams.add(team);
+        return team;
+    }
+
+    private long memberCount(Team team) {
+        return teamRepository.findById(team.getId()).orElseThrow().getMemberCount();
+    }
+}